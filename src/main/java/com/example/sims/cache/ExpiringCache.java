@@ -0,0 +1,132 @@
+package com.example.sims.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+// Small bounded map where every entry carries its own expiry time.
+// Lookups are lock-free; only the make-room sweep is serialised.
+public class ExpiringCache<K, V> {
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ExpiringCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+    }
+
+    public void invalidate(K key) {
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (predicate.test(it.next().value())) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        int size = entries.size();
+        entries.clear();
+        evictions.add(size);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("size", size());
+        m.put("maxSize", maxSize);
+        m.put("hits", hitCount());
+        m.put("misses", missCount());
+        m.put("evictions", evictionCount());
+        m.put("hitRatio", hitRatio());
+        return m;
+    }
+
+    private synchronized void makeRoom() {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        // drop expired entries first, then an arbitrary tenth if we are still full
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAtMillis() <= now) {
+                it.remove();
+                evictions.increment();
+            }
+        }
+        if (entries.size() < maxSize) {
+            return;
+        }
+        int toDrop = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<K> keys = entries.keySet().iterator();
+        while (toDrop-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+}
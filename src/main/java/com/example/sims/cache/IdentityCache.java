@@ -0,0 +1,301 @@
+package com.example.sims.cache;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sims.entity.CompanyEntity;
+import com.example.sims.entity.StudentProfileEntity;
+import com.example.sims.entity.UserEntity;
+import com.example.sims.repo.CompanyRepository;
+import com.example.sims.repo.StudentProfileRepository;
+import com.example.sims.repo.UserRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Read-through cache for the user, student profile and company rows that identify
+// the caller on every request. Entries live for a short TTL and are evicted explicitly
+// by every write path that changes them, so deactivation and role changes apply at once.
+// Only hits are cached; a missing row is always looked up again.
+//
+// - The cache holds immutable snapshots and every lookup returns newly built, detached
+//   entities, so a caller that changes what it got affects neither the cache nor other
+//   requests. Write paths load their own managed entity.
+// - Inside a transaction an eviction is repeated after the commit, and a lookup that
+//   raced with any eviction does not cache what it read; otherwise a reader could cache
+//   the row as it was before the commit for a whole TTL.
+@Component
+public class IdentityCache {
+
+    private record UserRow(Long id, String email, String username, String password, String role,
+            LocalDateTime createdAt, Boolean active) {
+
+        static UserRow of(UserEntity user) {
+            return new UserRow(user.getId(), user.getEmail(), user.getUsername(), user.getPassword(), user.getRole(),
+                    user.getCreatedAt(), user.getActive());
+        }
+
+        UserEntity toEntity() {
+            UserEntity user = new UserEntity();
+            user.setId(id);
+            user.setEmail(email);
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setRole(role);
+            user.setCreatedAt(createdAt);
+            user.setActive(active);
+            return user;
+        }
+    }
+
+    private record StudentRow(Long id, UserRow user, String studentCode, String fullName, String major, Integer year,
+            String cvFile) {
+
+        static StudentRow of(StudentProfileEntity student) {
+            return new StudentRow(student.getId(), student.getUser() == null ? null : UserRow.of(student.getUser()),
+                    student.getStudentCode(), student.getFullName(), student.getMajor(), student.getYear(),
+                    student.getCvFile());
+        }
+
+        Long userId() {
+            return user == null ? null : user.id();
+        }
+
+        StudentProfileEntity toEntity() {
+            StudentProfileEntity student = new StudentProfileEntity();
+            student.setId(id);
+            student.setUser(user == null ? null : user.toEntity());
+            student.setStudentCode(studentCode);
+            student.setFullName(fullName);
+            student.setMajor(major);
+            student.setYear(year);
+            student.setCvFile(cvFile);
+            return student;
+        }
+    }
+
+    private record CompanyRow(Long id, UserRow user, String companyName, String address, String contactEmail,
+            String contactPhone) {
+
+        static CompanyRow of(CompanyEntity company) {
+            return new CompanyRow(company.getId(), company.getUser() == null ? null : UserRow.of(company.getUser()),
+                    company.getCompanyName(), company.getAddress(), company.getContactEmail(),
+                    company.getContactPhone());
+        }
+
+        Long userId() {
+            return user == null ? null : user.id();
+        }
+
+        CompanyEntity toEntity() {
+            CompanyEntity company = new CompanyEntity();
+            company.setId(id);
+            company.setUser(user == null ? null : user.toEntity());
+            company.setCompanyName(companyName);
+            company.setAddress(address);
+            company.setContactEmail(contactEmail);
+            company.setContactPhone(contactPhone);
+            return company;
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final StudentProfileRepository studentProfileRepository;
+    private final CompanyRepository companyRepository;
+
+    @Value("${identity.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${identity.cache.max-size:10000}")
+    private int maxSize;
+
+    private ExpiringCache<Long, UserRow> usersById;
+    private ExpiringCache<String, Long> userIdsByEmail;
+    private ExpiringCache<Long, StudentRow> studentsById;
+    private ExpiringCache<Long, Long> studentIdsByUserId;
+    private ExpiringCache<Long, CompanyRow> companiesById;
+    private ExpiringCache<Long, Long> companyIdsByUserId;
+    // bumped by every eviction; a load only caches its row if none happened meanwhile
+    private final AtomicLong evictions = new AtomicLong();
+
+    public IdentityCache(UserRepository userRepository, StudentProfileRepository studentProfileRepository,
+            CompanyRepository companyRepository) {
+        this.userRepository = userRepository;
+        this.studentProfileRepository = studentProfileRepository;
+        this.companyRepository = companyRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        usersById = new ExpiringCache<>(maxSize);
+        userIdsByEmail = new ExpiringCache<>(maxSize);
+        studentsById = new ExpiringCache<>(maxSize);
+        studentIdsByUserId = new ExpiringCache<>(maxSize);
+        companiesById = new ExpiringCache<>(maxSize);
+        companyIdsByUserId = new ExpiringCache<>(maxSize);
+    }
+
+    public Optional<UserEntity> findUserById(Long id) {
+        UserRow user = usersById.get(id);
+        if (user == null) {
+            long generation = evictions.get();
+            user = userRepository.findById(id).map(UserRow::of).orElse(null);
+            cacheUser(user, generation);
+        }
+        return Optional.ofNullable(user).map(UserRow::toEntity);
+    }
+
+    public Optional<UserEntity> findUserByEmail(String email) {
+        Long id = userIdsByEmail.get(email);
+        UserRow user = id != null ? usersById.get(id) : null;
+        if (user == null || !email.equals(user.email())) {
+            long generation = evictions.get();
+            user = userRepository.findByEmail(email).map(UserRow::of).orElse(null);
+            cacheUser(user, generation);
+        }
+        return Optional.ofNullable(user).map(UserRow::toEntity);
+    }
+
+    public Optional<StudentProfileEntity> findStudentById(Long id) {
+        StudentRow student = studentsById.get(id);
+        if (student == null) {
+            long generation = evictions.get();
+            student = studentProfileRepository.findById(id).map(StudentRow::of).orElse(null);
+            cacheStudent(student, generation);
+        }
+        return Optional.ofNullable(student).map(StudentRow::toEntity);
+    }
+
+    public Optional<StudentProfileEntity> findStudentByUserId(Long userId) {
+        Long id = studentIdsByUserId.get(userId);
+        StudentRow student = id != null ? studentsById.get(id) : null;
+        if (student == null) {
+            long generation = evictions.get();
+            student = studentProfileRepository.findByUserId(userId).map(StudentRow::of).orElse(null);
+            cacheStudent(student, generation);
+        }
+        return Optional.ofNullable(student).map(StudentRow::toEntity);
+    }
+
+    public Optional<CompanyEntity> findCompanyById(Long id) {
+        CompanyRow company = companiesById.get(id);
+        if (company == null) {
+            long generation = evictions.get();
+            company = companyRepository.findById(id).map(CompanyRow::of).orElse(null);
+            cacheCompany(company, generation);
+        }
+        return Optional.ofNullable(company).map(CompanyRow::toEntity);
+    }
+
+    public Optional<CompanyEntity> findCompanyByUserId(Long userId) {
+        Long id = companyIdsByUserId.get(userId);
+        CompanyRow company = id != null ? companiesById.get(id) : null;
+        if (company == null) {
+            long generation = evictions.get();
+            company = companyRepository.findByUserId(userId).map(CompanyRow::of).orElse(null);
+            cacheCompany(company, generation);
+        }
+        return Optional.ofNullable(company).map(CompanyRow::toEntity);
+    }
+
+    // Drops the user and every profile/company entry that embeds it
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(() -> {
+            usersById.invalidate(userId);
+            userIdsByEmail.invalidateIf(id -> id.equals(userId));
+            studentIdsByUserId.invalidate(userId);
+            companyIdsByUserId.invalidate(userId);
+            studentsById.invalidateIf(s -> userId.equals(s.userId()));
+            companiesById.invalidateIf(c -> userId.equals(c.userId()));
+        });
+    }
+
+    public void evictStudent(Long studentId) {
+        if (studentId != null) {
+            evict(() -> {
+                studentsById.invalidate(studentId);
+                studentIdsByUserId.invalidateIf(id -> id.equals(studentId));
+            });
+        }
+    }
+
+    public void evictCompany(Long companyId) {
+        if (companyId != null) {
+            evict(() -> {
+                companiesById.invalidate(companyId);
+                companyIdsByUserId.invalidateIf(id -> id.equals(companyId));
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("usersById", usersById.stats());
+        m.put("userIdsByEmail", userIdsByEmail.stats());
+        m.put("studentsById", studentsById.stats());
+        m.put("studentIdsByUserId", studentIdsByUserId.stats());
+        m.put("companiesById", companiesById.stats());
+        m.put("companyIdsByUserId", companyIdsByUserId.stats());
+        return m;
+    }
+
+    // Now, and again once the surrounding transaction (if any) has committed
+    private void evict(Runnable drop) {
+        evictions.incrementAndGet();
+        drop.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictions.incrementAndGet();
+                    drop.run();
+                }
+            });
+        }
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + ttlSeconds * 1000;
+    }
+
+    private void cacheUser(UserRow user, long generation) {
+        if (user == null || evictions.get() != generation) {
+            return;
+        }
+        long expiresAt = expiresAt();
+        usersById.put(user.id(), user, expiresAt);
+        userIdsByEmail.put(user.email(), user.id(), expiresAt);
+    }
+
+    private void cacheStudent(StudentRow student, long generation) {
+        if (student == null || evictions.get() != generation) {
+            return;
+        }
+        long expiresAt = expiresAt();
+        studentsById.put(student.id(), student, expiresAt);
+        if (student.userId() != null) {
+            studentIdsByUserId.put(student.userId(), student.id(), expiresAt);
+        }
+    }
+
+    private void cacheCompany(CompanyRow company, long generation) {
+        if (company == null || evictions.get() != generation) {
+            return;
+        }
+        long expiresAt = expiresAt();
+        companiesById.put(company.id(), company, expiresAt);
+        if (company.userId() != null) {
+            companyIdsByUserId.put(company.userId(), company.id(), expiresAt);
+        }
+    }
+}
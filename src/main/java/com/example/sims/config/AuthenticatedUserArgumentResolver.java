@@ -0,0 +1,79 @@
+package com.example.sims.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.entity.UserEntity;
+import com.example.sims.security.AuthenticatedUser;
+import com.example.sims.security.JwtAuthenticationFilter;
+import com.example.sims.security.JwtPrincipal;
+import com.example.sims.service.AuthService;
+
+// Injects AuthenticatedUser into controller methods. The ids come straight from the
+// verified token and the account state from IdentityCache, so a request normally
+// resolves its caller without touching the database.
+@Component
+public class AuthenticatedUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private static final String RESOLVED_ATTRIBUTE = AuthenticatedUser.class.getName();
+
+    private final AuthService authService;
+    private final IdentityCache identityCache;
+
+    public AuthenticatedUserArgumentResolver(AuthService authService, IdentityCache identityCache) {
+        this.authService = authService;
+        this.identityCache = identityCache;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return AuthenticatedUser.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Object resolved = webRequest.getAttribute(RESOLVED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (resolved != null) {
+            return resolved;
+        }
+
+        Object attribute = webRequest.getAttribute(JwtAuthenticationFilter.PRINCIPAL_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        if (!(attribute instanceof JwtPrincipal principal)) {
+            return null;
+        }
+
+        AuthenticatedUser user;
+        if (principal.userId() != null) {
+            UserEntity entity = identityCache.findUserById(principal.userId()).orElse(null);
+            if (!isCurrent(entity, principal)) {
+                return null;
+            }
+            user = new AuthenticatedUser(principal.userId(), principal.email(), principal.role(),
+                    principal.profileId());
+        } else {
+            // tokens issued before the ids were embedded
+            UserEntity entity = authService.getUserByEmail(principal.email());
+            if (!isCurrent(entity, principal)) {
+                return null;
+            }
+            user = new AuthenticatedUser(entity.getId(), entity.getEmail(), entity.getRole(),
+                    authService.findProfileId(entity));
+        }
+
+        webRequest.setAttribute(RESOLVED_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        return user;
+    }
+
+    // Deactivated accounts and role changes must not wait for the token to expire
+    private static boolean isCurrent(UserEntity entity, JwtPrincipal principal) {
+        return entity != null && Boolean.TRUE.equals(entity.getActive())
+                && entity.getRole().equals(principal.role());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.sims.config;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// Read replicas, enabled by listing their JDBC URLs in datasource.replica.urls. Without
+// it the auto-configured single datasource is used unchanged. Flyway always migrates the
+// primary; the application datasource routes per transaction (ReplicaRoutingDataSource).
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    @FlywayDataSource
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+            DataSourceProperties properties,
+            @Value("${datasource.replica.urls}") List<String> urls,
+            @Value("${datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${datasource.replica.routed-transactions:com.example.sims.service.}") String routedPrefix,
+            @Value("${datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(urls.get(i).trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            // an unreachable replica must not hold up startup, the health check marks it down
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        routing = new ReplicaRoutingDataSource(primary, replicas, routedPrefix, readYourWritesMillis);
+        return routing;
+    }
+
+    // Connections are fetched at the first statement, once the transaction is marked read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("routingDataSource") DataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Scheduled(initialDelayString = "${datasource.replica.health-interval-ms:5000}",
+            fixedDelayString = "${datasource.replica.health-interval-ms:5000}")
+    void checkReplicas() {
+        if (routing != null) {
+            routing.checkReplicas();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.sims.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sims.service.ChangeVersions;
+
+// Sends read-only transactions started by the service layer to a replica, everything
+// else to the primary. Must sit behind a LazyConnectionDataSourceProxy so the routing
+// decision happens after the transaction has been marked read-only.
+//
+// - Only transactions whose name starts with the routed prefix go to replicas; repository
+//   calls made outside a service transaction (logins, identity lookups, background
+//   rebuilds after a commit) keep reading the primary.
+// - A user who committed a write reads from the primary for the read-your-writes window,
+//   so a redirect after a form post never shows stale data from a lagging replica.
+// - A request whose ETag covers data changed within the same window reads the primary
+//   too: whoever made the change, a replica could still hold the old rows and a client
+//   would then cache them under the new ETag and keep revalidating them with 304s.
+// - Replicas are picked round robin among the healthy ones. A replica that fails to hand
+//   out a connection is marked down and the request falls back to the primary; the
+//   periodic health check brings it back.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final String routedPrefix;
+    private final long readYourWritesMillis;
+
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+    // principal -> time of the last committed write
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String routedPrefix,
+            long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.routedPrefix = routedPrefix;
+        this.readYourWritesMillis = readYourWritesMillis;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (String name : replicas.keySet()) {
+            healthy.put(name, true);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite();
+            return PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || !name.startsWith(routedPrefix) || wroteRecently(currentPrincipal())
+                || stampedRecently()) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+        String replica = nextHealthyReplica();
+        if (replica == null) {
+            primaryReads.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaReads.incrementAndGet();
+        return replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return primary.getConnection();
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            markDown(target, e);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == primary) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            markDown(target, e);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    // Probes every replica; also forgets writes older than the read-your-writes window
+    public void checkReplicas() {
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            boolean up;
+            try (Connection connection = replica.getValue().getConnection()) {
+                up = connection.isValid(2);
+            } catch (SQLException e) {
+                up = false;
+            }
+            Boolean was = healthy.put(replica.getKey(), up);
+            if (was != null && was != up) {
+                log.info("Replica {} is {}", replica.getKey(), up ? "back up" : "down");
+            }
+        }
+        long cutoff = System.currentTimeMillis() - readYourWritesMillis;
+        lastWrites.values().removeIf(at -> at < cutoff);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("replicas", new LinkedHashMap<>(healthy));
+        m.put("replicaReads", replicaReads.get());
+        m.put("primaryReads", primaryReads.get());
+        m.put("fallbacks", fallbacks.get());
+        m.put("recentWriters", lastWrites.size());
+        return m;
+    }
+
+    private String nextHealthyReplica() {
+        List<String> up = new ArrayList<>(replicas.size());
+        for (String name : replicas.keySet()) {
+            if (Boolean.TRUE.equals(healthy.get(name))) {
+                up.add(name);
+            }
+        }
+        if (up.isEmpty()) {
+            return null;
+        }
+        return up.get(Math.floorMod(next.getAndIncrement(), up.size()));
+    }
+
+    private void markDown(DataSource target, SQLException cause) {
+        fallbacks.incrementAndGet();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            if (replica.getValue() == target && Boolean.TRUE.equals(healthy.put(replica.getKey(), false))) {
+                log.warn("Replica {} unavailable, reading from the primary until it recovers", replica.getKey(),
+                        cause);
+            }
+        }
+    }
+
+    private boolean wroteRecently(String principal) {
+        if (principal == null) {
+            return false;
+        }
+        Long at = lastWrites.get(principal);
+        return at != null && System.currentTimeMillis() - at < readYourWritesMillis;
+    }
+
+    private boolean stampedRecently() {
+        long changedAt = ChangeVersions.stampedChangeTime();
+        return changedAt > 0 && System.currentTimeMillis() - changedAt < readYourWritesMillis;
+    }
+
+    // The window starts when the write is durable. Connections fetched outside a
+    // transaction (pool checks, a transaction still being set up) are not writes.
+    private void recordWrite() {
+        String principal = currentPrincipal();
+        if (principal == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrites.put(principal, System.currentTimeMillis());
+            }
+        });
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
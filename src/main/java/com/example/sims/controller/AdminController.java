@@ -12,50 +12,105 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 // import org.springframework.web.bind.annotation.RestController;
 
-import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.config.ReplicaRoutingDataSource;
+import com.example.sims.dto.ApplicationListingRow;
 import com.example.sims.entity.CompanyEntity;
 import com.example.sims.entity.InternshipEntity;
 import com.example.sims.entity.UserEntity;
+import com.example.sims.realtime.ActiveUserNotifier;
+import com.example.sims.realtime.OverviewNotifier;
+import com.example.sims.realtime.PresenceTracker;
+import com.example.sims.security.AuthenticatedUser;
+import com.example.sims.security.JwtTokenProvider;
+import com.example.sims.security.PasswordHashingExecutor;
+import com.example.sims.service.AccountImportService;
+import com.example.sims.service.ChangeVersions;
+import com.example.sims.service.ExportService;
+import com.example.sims.service.InternshipCatalog;
+import com.example.sims.service.InternshipFacetIndex;
+import com.example.sims.service.InternshipSearchIndex;
+import com.example.sims.service.KeysetPage;
+import com.example.sims.service.OutboxRelay;
+import com.example.sims.service.SeatAllocator;
+import com.example.sims.service.SeatsInUseException;
 // import com.example.sims.service.AdminService;
-import com.example.sims.service.AuthService;
 
-import jakarta.servlet.http.HttpServletRequest;
-// import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Controller
 @RequestMapping("/admin")
 public class AdminController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
-    private final AuthService authService;
     private final com.example.sims.service.AdminService adminService;
     private final com.example.sims.repo.CompanyRepository companyRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final IdentityCache identityCache;
+    private final PasswordHashingExecutor passwordHasher;
+    private final PresenceTracker presenceTracker;
+    private final ActiveUserNotifier activeUserNotifier;
+    private final OverviewNotifier overviewNotifier;
+    private final ExportService exportService;
+    private final InternshipCatalog internshipCatalog;
+    private final ChangeVersions changeVersions;
+    private final InternshipSearchIndex internshipSearchIndex;
+    private final InternshipFacetIndex internshipFacetIndex;
+    private final SeatAllocator seatAllocator;
+    private final AccountImportService accountImportService;
+    private final OutboxRelay outboxRelay;
+    // only present when read replicas are configured
+    private final org.springframework.beans.factory.ObjectProvider<ReplicaRoutingDataSource> replicaRouting;
 
-    public AdminController(AuthService authService, com.example.sims.service.AdminService adminService,
-            com.example.sims.repo.CompanyRepository companyRepository) {
-        this.authService = authService;
+    public AdminController(com.example.sims.service.AdminService adminService,
+            com.example.sims.repo.CompanyRepository companyRepository, JwtTokenProvider jwtTokenProvider,
+            IdentityCache identityCache, PasswordHashingExecutor passwordHasher,
+            PresenceTracker presenceTracker, ActiveUserNotifier activeUserNotifier,
+            OverviewNotifier overviewNotifier, ExportService exportService, InternshipCatalog internshipCatalog,
+            ChangeVersions changeVersions, InternshipSearchIndex internshipSearchIndex,
+            InternshipFacetIndex internshipFacetIndex, SeatAllocator seatAllocator,
+            AccountImportService accountImportService, OutboxRelay outboxRelay,
+            org.springframework.beans.factory.ObjectProvider<ReplicaRoutingDataSource> replicaRouting) {
         this.adminService = adminService;
         this.companyRepository = companyRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.identityCache = identityCache;
+        this.passwordHasher = passwordHasher;
+        this.presenceTracker = presenceTracker;
+        this.activeUserNotifier = activeUserNotifier;
+        this.overviewNotifier = overviewNotifier;
+        this.exportService = exportService;
+        this.internshipCatalog = internshipCatalog;
+        this.changeVersions = changeVersions;
+        this.internshipSearchIndex = internshipSearchIndex;
+        this.internshipFacetIndex = internshipFacetIndex;
+        this.seatAllocator = seatAllocator;
+        this.accountImportService = accountImportService;
+        this.outboxRelay = outboxRelay;
+        this.replicaRouting = replicaRouting;
     }
 
-    private UserEntity getAuthenticatedAdmin(HttpServletRequest request) {
-        String userEmail = (String) request.getAttribute("userEmail");
-        if (userEmail == null) {
-            return null;
-        }
-        UserEntity user = authService.getUserByEmail(userEmail);
-        if (user == null || !"ADMIN".equals(user.getRole())) {
-            return null;
-        }
-        return user;
+    private boolean isAdmin(AuthenticatedUser principal) {
+        return principal != null && principal.isAdmin();
+    }
+
+    // Listings return one page as a JSON array; the cursor of the next page, if any,
+    // travels in a header so the body keeps its shape
+    private static org.springframework.http.ResponseEntity.BodyBuilder withNextCursor(KeysetPage<?> page) {
+        org.springframework.http.ResponseEntity.BodyBuilder builder = org.springframework.http.ResponseEntity.ok();
+        if (page.nextCursor() != null)
+            builder.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        return builder;
     }
 
     @GetMapping("/dashboard")
-    public String dashboard(HttpServletRequest request, Model model) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null) {
+    public String dashboard(AuthenticatedUser principal, Model model) {
+        if (!isAdmin(principal)) {
             return "redirect:/auth/login";
         }
 
@@ -63,9 +118,8 @@ public class AdminController {
     }
 
     @GetMapping("/manage-internships")
-    public String manageInternships(HttpServletRequest request, Model model) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null) {
+    public String manageInternships(AuthenticatedUser principal, Model model) {
+        if (!isAdmin(principal)) {
             return "redirect:/auth/login";
         }
 
@@ -73,9 +127,8 @@ public class AdminController {
     }
 
     @GetMapping("/manage-internships/fragment")
-    public String manageInternshipsFragment(HttpServletRequest request, Model model) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null) {
+    public String manageInternshipsFragment(AuthenticatedUser principal, Model model) {
+        if (!isAdmin(principal)) {
             return "redirect:/auth/login";
         }
         // optionally add data from service later
@@ -84,35 +137,39 @@ public class AdminController {
 
     @GetMapping("/api/active-users")
     public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> getActiveUsers(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<UserEntity> users = adminService.getAllUsers();
         java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (UserEntity u : users) {
-            if (Boolean.TRUE.equals(u.getActive())) {
-                java.util.Map<String, Object> m = new java.util.HashMap<>();
-                m.put("id", u.getId());
-                m.put("username", u.getUsername());
-                m.put("email", u.getEmail());
-                m.put("role", u.getRole());
-                m.put("createdAt", u.getCreatedAt());
-                out.add(m);
-            }
+        for (PresenceTracker.OnlineUser u : presenceTracker.onlineUsers()) {
+            java.util.Map<String, Object> m = new java.util.HashMap<>();
+            m.put("id", u.getId());
+            m.put("username", u.getUsername());
+            m.put("email", u.getEmail());
+            m.put("role", u.getRole());
+            m.put("createdAt", u.getCreatedAt());
+            m.put("lastSeen", u.getLastSeen());
+            out.add(m);
         }
         return org.springframework.http.ResponseEntity.ok(out);
     }
 
     @GetMapping("/api/users")
     public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> getAllUsersApi(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal,
+            @RequestParam(required = false) java.util.List<String> role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<UserEntity> users = adminService.getAllUsers();
+        KeysetPage<UserEntity> page;
+        try {
+            page = adminService.getUsersPage(role, cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
         java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (UserEntity u : users) {
+        for (UserEntity u : page.items()) {
             java.util.Map<String, Object> m = new java.util.HashMap<>();
             m.put("id", u.getId());
             m.put("username", u.getUsername());
@@ -122,18 +179,24 @@ public class AdminController {
             m.put("createdAt", u.getCreatedAt());
             out.add(m);
         }
-        return org.springframework.http.ResponseEntity.ok(out);
+        return withNextCursor(page).body(out);
     }
 
     @GetMapping("/api/internships")
     public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> getInternshipsApi(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<com.example.sims.entity.InternshipEntity> list = adminService.getAllInternships();
+        KeysetPage<InternshipEntity> page;
+        try {
+            page = adminService.getInternshipsPage(cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
         java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (com.example.sims.entity.InternshipEntity i : list) {
+        for (InternshipEntity i : page.items()) {
             java.util.Map<String, Object> m = new java.util.HashMap<>();
             m.put("id", i.getId());
             m.put("title", i.getTitle());
@@ -142,14 +205,13 @@ public class AdminController {
             m.put("closingDate", i.getClosingDate());
             out.add(m);
         }
-        return org.springframework.http.ResponseEntity.ok(out);
+        return withNextCursor(page).body(out);
     }
 
     @DeleteMapping("/api/internships/{id}")
     public org.springframework.http.ResponseEntity<Void> deleteInternship(@PathVariable Long id,
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
         try {
             adminService.deleteInternship(id);
@@ -161,9 +223,8 @@ public class AdminController {
 
     @PostMapping("/api/internships")
     public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> createInternship(
-            @RequestBody java.util.Map<String, Object> body, HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            @RequestBody java.util.Map<String, Object> body, AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
         try {
             InternshipEntity it = new InternshipEntity();
@@ -179,6 +240,9 @@ public class AdminController {
             java.util.Map<String, Object> m = new java.util.HashMap<>();
             m.put("id", created.getId());
             return org.springframework.http.ResponseEntity.ok(m);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(java.util.Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             return org.springframework.http.ResponseEntity.status(500).build();
         }
@@ -186,13 +250,11 @@ public class AdminController {
 
     @PutMapping("/api/internships/{id}")
     public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> updateInternship(
-            @PathVariable Long id, @RequestBody java.util.Map<String, Object> body, HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            @PathVariable Long id, @RequestBody java.util.Map<String, Object> body, AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
         try {
-            java.util.Optional<InternshipEntity> opt = adminService.getAllInternships().stream()
-                    .filter(i -> i.getId() != null && i.getId().equals(id)).findFirst();
+            java.util.Optional<InternshipEntity> opt = adminService.getInternshipById(id);
             if (!opt.isPresent())
                 return org.springframework.http.ResponseEntity.status(404).build();
             InternshipEntity it = opt.get();
@@ -208,6 +270,12 @@ public class AdminController {
             java.util.Map<String, Object> m = new java.util.HashMap<>();
             m.put("id", updated.getId());
             return org.springframework.http.ResponseEntity.ok(m);
+        } catch (SeatsInUseException ex) {
+            return org.springframework.http.ResponseEntity.status(409)
+                    .body(java.util.Map.of("error", ex.getMessage(), "internshipId", ex.getInternshipId()));
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(java.util.Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
             return org.springframework.http.ResponseEntity.status(500).build();
         }
@@ -215,27 +283,54 @@ public class AdminController {
 
     @GetMapping("/api/overview")
     public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> getOverview(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.Map<String, Object> m = new java.util.HashMap<>();
-        m.put("totalStudents", adminService.getActiveStudentsCount());
-        m.put("totalInternships", adminService.getTotalInternships());
-        m.put("totalCompanies", adminService.getTotalCompanies());
-        m.put("pendingApplications", adminService.getPendingApplications());
+        // same versioned snapshot the overview stream publishes
+        return org.springframework.http.ResponseEntity.ok(overviewNotifier.current());
+    }
+
+    @GetMapping("/api/metrics")
+    public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> getMetrics(
+            AuthenticatedUser principal) {
+        if (!isAdmin(principal))
+            return org.springframework.http.ResponseEntity.status(401).build();
+        java.util.Map<String, Object> m = new java.util.LinkedHashMap<>();
+        m.put("jwtCache", jwtTokenProvider.cacheStats());
+        m.put("identityCache", identityCache.stats());
+        m.put("passwordHashing", passwordHasher.stats());
+        m.put("presence", presenceTracker.stats());
+        m.put("activeUserStream", activeUserNotifier.stats());
+        m.put("overviewStream", overviewNotifier.stats());
+        m.put("overviewCounters", adminService.getOverviewCounterStats());
+        m.put("internshipCatalog", internshipCatalog.stats());
+        m.put("changeVersions", changeVersions.stats());
+        m.put("internshipSearch", internshipSearchIndex.stats());
+        m.put("internshipFacets", internshipFacetIndex.stats());
+        m.put("seatAllocation", seatAllocator.stats());
+        m.put("outbox", outboxRelay.stats());
+        replicaRouting.ifAvailable(routing -> m.put("replicaRouting", routing.stats()));
         return org.springframework.http.ResponseEntity.ok(m);
     }
 
     @GetMapping("/api/companies")
     public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> getCompaniesApi(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            org.springframework.web.context.request.WebRequest request) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<CompanyEntity> companies = companyRepository.findAll();
+        if (ConditionalGet.notModified(request, changeVersions.stamp(ChangeVersions.COMPANIES)))
+            return null;
+        KeysetPage<CompanyEntity> page;
+        try {
+            page = adminService.getCompaniesPage(cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
         java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (CompanyEntity c : companies) {
+        for (CompanyEntity c : page.items()) {
             java.util.Map<String, Object> mm = new java.util.HashMap<>();
             mm.put("id", c.getId());
             mm.put("companyName", c.getCompanyName());
@@ -245,44 +340,42 @@ public class AdminController {
             mm.put("userId", c.getUser() != null ? c.getUser().getId() : null);
             out.add(mm);
         }
-        return org.springframework.http.ResponseEntity.ok(out);
+        return withNextCursor(page).body(out);
     }
 
     @GetMapping("/api/applications")
     public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> getApplicationsApi(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<ApplicationEntity> apps = adminService.getAllApplications();
+        KeysetPage<ApplicationListingRow> page;
+        try {
+            page = adminService.getApplicationsPage(cursor, limit);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
         java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (ApplicationEntity a : apps) {
+        for (ApplicationListingRow a : page.items()) {
             java.util.Map<String, Object> m = new java.util.HashMap<>();
-            m.put("id", a.getId());
-            if (a.getStudent() != null) {
-                m.put("studentId", a.getStudent().getId());
-                m.put("studentName", a.getStudent().getFullName() != null ? a.getStudent().getFullName()
-                        : (a.getStudent().getUser() != null ? a.getStudent().getUser().getUsername() : null));
-                m.put("studentEmail", a.getStudent().getUser() != null ? a.getStudent().getUser().getEmail() : null);
-            }
-            if (a.getInternship() != null) {
-                m.put("internshipId", a.getInternship().getId());
-                m.put("internshipTitle", a.getInternship().getTitle());
-                m.put("companyName",
-                        a.getInternship().getCompany() != null ? a.getInternship().getCompany().getCompanyName()
-                                : null);
-            }
-            m.put("status", a.getStatus() != null ? a.getStatus().name() : null);
-            m.put("appliedAt", a.getAppliedAt());
+            m.put("id", a.id());
+            m.put("studentId", a.studentId());
+            m.put("studentName", a.studentName());
+            m.put("studentEmail", a.studentEmail());
+            m.put("internshipId", a.internshipId());
+            m.put("internshipTitle", a.internshipTitle());
+            m.put("companyName", a.companyName());
+            m.put("status", a.status() != null ? a.status().name() : null);
+            m.put("appliedAt", a.appliedAt());
             out.add(m);
         }
-        return org.springframework.http.ResponseEntity.ok(out);
+        return withNextCursor(page).body(out);
     }
 
     @DeleteMapping("/api/users/{id}")
-    public org.springframework.http.ResponseEntity<Void> deleteUser(@PathVariable Long id, HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+    public org.springframework.http.ResponseEntity<Void> deleteUser(@PathVariable Long id, AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
         try {
             adminService.deleteUser(id);
@@ -292,11 +385,28 @@ public class AdminController {
         }
     }
 
+    // CSV onboarding of students and companies; the columns are listed on AccountImportService.
+    // Runs on the request thread and answers with the report once every row is handled, so
+    // the upload size limit (10MB) also bounds how long the request takes.
+    @PostMapping("/api/users/import")
+    public org.springframework.http.ResponseEntity<?> importUsers(AuthenticatedUser principal,
+            @RequestParam("file") org.springframework.web.multipart.MultipartFile file) {
+        if (!isAdmin(principal))
+            return org.springframework.http.ResponseEntity.status(401).build();
+        try (java.io.InputStream in = file.getInputStream()) {
+            return org.springframework.http.ResponseEntity.ok(accountImportService.importCsv(in));
+        } catch (IllegalArgumentException iae) {
+            return org.springframework.http.ResponseEntity.badRequest().body(java.util.Map.of("error", iae.getMessage()));
+        } catch (java.io.IOException ex) {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(java.util.Map.of("error", "Could not read the uploaded file"));
+        }
+    }
+
     @PutMapping("/api/users/{id}")
     public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> updateUser(@PathVariable Long id,
-            @RequestBody java.util.Map<String, Object> body, HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            @RequestBody java.util.Map<String, Object> body, AuthenticatedUser principal) {
+        if (!isAdmin(principal))
             return org.springframework.http.ResponseEntity.status(401).build();
         try {
             String username = body.containsKey("username") ? (String) body.get("username") : null;
@@ -321,11 +431,57 @@ public class AdminController {
 
     @GetMapping("/stream/active-users")
     public org.springframework.web.servlet.mvc.method.annotation.SseEmitter streamActiveUsers(
-            HttpServletRequest request) {
-        UserEntity admin = getAuthenticatedAdmin(request);
-        if (admin == null)
+            AuthenticatedUser principal) {
+        if (!isAdmin(principal))
+            return null;
+        return activeUserNotifier.register();
+    }
+
+    // Full exports streamed row by row; ?format=csv (default) or ndjson
+    @GetMapping("/export/applications")
+    public org.springframework.http.ResponseEntity<StreamingResponseBody> exportApplications(
+            AuthenticatedUser principal, @RequestParam(required = false) String format) {
+        if (!isAdmin(principal))
+            return org.springframework.http.ResponseEntity.status(401).build();
+        ExportService.Format fmt;
+        try {
+            fmt = ExportService.Format.parse(format);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
+        return exportResponse("applications", fmt, out -> exportService.exportApplications(fmt, out));
+    }
+
+    @GetMapping("/export/users")
+    public org.springframework.http.ResponseEntity<StreamingResponseBody> exportUsers(
+            AuthenticatedUser principal, @RequestParam(required = false) String format) {
+        if (!isAdmin(principal))
+            return org.springframework.http.ResponseEntity.status(401).build();
+        ExportService.Format fmt;
+        try {
+            fmt = ExportService.Format.parse(format);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
+        return exportResponse("users", fmt, out -> exportService.exportUsers(fmt, out));
+    }
+
+    private static org.springframework.http.ResponseEntity<StreamingResponseBody> exportResponse(String name,
+            ExportService.Format format, StreamingResponseBody body) {
+        String filename = name + "-" + java.time.LocalDate.now() + "." + format.getExtension();
+        return org.springframework.http.ResponseEntity.ok()
+                .contentType(org.springframework.http.MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/stream/overview")
+    public org.springframework.web.servlet.mvc.method.annotation.SseEmitter streamOverview(
+            AuthenticatedUser principal,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (!isAdmin(principal))
             return null;
-        return com.example.sims.realtime.ActiveUserNotifier.register();
+        return overviewNotifier.register(lastEventId);
     }
 
 }
\ No newline at end of file
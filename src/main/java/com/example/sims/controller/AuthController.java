@@ -1,16 +1,23 @@
 package com.example.sims.controller;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
-import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.ModelAndView;
 
 import com.example.sims.dto.AuthResponse;
 import com.example.sims.entity.UserEntity;
+import com.example.sims.security.JwtTokenProvider;
+import com.example.sims.security.PasswordHashingBusyException;
 import com.example.sims.service.AuthService;
 
 import jakarta.servlet.http.Cookie;
@@ -20,9 +27,11 @@ import jakarta.servlet.http.HttpServletResponse;
 @RequestMapping("/auth")
 public class AuthController {
     private final AuthService authService;
+    private final JwtTokenProvider jwtTokenProvider;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, JwtTokenProvider jwtTokenProvider) {
         this.authService = authService;
+        this.jwtTokenProvider = jwtTokenProvider;
     }
 
     @GetMapping("/login")
@@ -30,11 +39,21 @@ public class AuthController {
         return "auth/login";
     }
 
+    // Login and register return futures: the servlet thread goes back to the pool while
+    // the password hash waits its turn, and the response completes from the hashing result
     @PostMapping("/login")
-    public String login(@RequestParam String email, @RequestParam String password, Model model,
+    public CompletableFuture<ModelAndView> login(@RequestParam String email, @RequestParam String password,
             HttpServletResponse response) {
+        CompletableFuture<String> login;
         try {
-            String token = authService.login(email, password);
+            login = authService.loginAsync(email, password);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(failed("auth/login", e, response));
+        }
+        return login.handle((token, error) -> {
+            if (error != null) {
+                return failed("auth/login", error, response);
+            }
 
             // Set JWT token in cookie
             Cookie cookie = new Cookie("jwt", token);
@@ -43,17 +62,14 @@ public class AuthController {
             cookie.setPath("/");
             response.addCookie(cookie);
 
-            // mark user active
+            // mark user online
             try {
-                authService.markUserActiveByEmail(email, true);
+                authService.markUserOnline(email, true);
             } catch (Exception ex) {
                 /* ignore */ }
 
-            return "redirect:/dashboard";
-        } catch (Exception e) {
-            model.addAttribute("error", e.getMessage());
-            return "auth/login";
-        }
+            return new ModelAndView("redirect:/dashboard");
+        });
     }
 
     @GetMapping("/register")
@@ -62,16 +78,33 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public String register(@RequestParam String email, @RequestParam String username,
-            @RequestParam String password, @RequestParam(required = false) String role, Model model) {
+    public CompletableFuture<ModelAndView> register(@RequestParam String email, @RequestParam String username,
+            @RequestParam String password, @RequestParam(required = false) String role,
+            HttpServletResponse response) {
+        CompletableFuture<UserEntity> registration;
         try {
-            authService.register(email, username, password, role != null ? role : "USER");
-            model.addAttribute("success", "Registration successful! Please login.");
-            return "redirect:/auth/login";
+            registration = authService.registerAsync(email, username, password, role != null ? role : "USER");
         } catch (Exception e) {
-            model.addAttribute("error", e.getMessage());
-            return "auth/register";
+            return CompletableFuture.completedFuture(failed("auth/register", e, response));
         }
+        return registration.handle((user, error) -> error != null ? failed("auth/register", error, response)
+                : new ModelAndView("redirect:/auth/login"));
+    }
+
+    // The form again with the error; 429 and Retry-After when the hashing pool is full
+    private static ModelAndView failed(String view, Throwable error, HttpServletResponse response) {
+        Throwable cause = unwrap(error);
+        ModelAndView form = new ModelAndView(view);
+        if (cause instanceof PasswordHashingBusyException busy) {
+            form.setStatus(HttpStatus.TOO_MANY_REQUESTS);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()));
+        }
+        form.addObject("error", cause.getMessage());
+        return form;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     @GetMapping("/logout")
@@ -80,11 +113,18 @@ public class AuthController {
         cookie.setMaxAge(0);
         cookie.setPath("/");
         response.addCookie(cookie);
-        // attempt to mark user inactive if userEmail attribute is available
+        // attempt to mark user offline; /auth/** skips the JWT filter, so fall back to the cookie
         try {
             String userEmail = (String) request.getAttribute("userEmail");
+            if (userEmail == null && request.getCookies() != null) {
+                for (Cookie c : request.getCookies()) {
+                    if ("jwt".equals(c.getName())) {
+                        userEmail = jwtTokenProvider.getEmailFromToken(c.getValue());
+                    }
+                }
+            }
             if (userEmail != null)
-                authService.markUserActiveByEmail(userEmail, false);
+                authService.markUserOnline(userEmail, false);
         } catch (Exception ex) {
             /* ignore */ }
         return "redirect:/auth/login";
@@ -96,45 +136,65 @@ public class AuthController {
     public class AuthApiController {
 
         @PostMapping("/login")
-        public ResponseEntity<AuthResponse> apiLogin(@RequestParam String email,
+        public CompletableFuture<ResponseEntity<AuthResponse>> apiLogin(@RequestParam String email,
                 @RequestParam String password) {
+            CompletableFuture<String> login;
             try {
-                String token = authService.login(email, password);
+                login = authService.loginAsync(email, password);
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(failed(e, 401));
+            }
+            return login.handle((token, error) -> {
+                if (error != null) {
+                    return failed(error, 401);
+                }
                 UserEntity user = authService.getUserByEmail(email);
                 try {
-                    authService.markUserActiveByEmail(email, true);
+                    authService.markUserOnline(email, true);
                 } catch (Exception ex) {
                     /* ignore */ }
                 return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole()));
-            } catch (Exception e) {
-                return ResponseEntity.status(401)
-                        .body(new AuthResponse(null, null, null, e.getMessage()));
-            }
+            });
         }
 
+        // Issues the token directly instead of logging in, which would hash the password again
         @PostMapping("/register")
-        public ResponseEntity<AuthResponse> apiRegister(@RequestParam String email,
+        public CompletableFuture<ResponseEntity<AuthResponse>> apiRegister(@RequestParam String email,
                 @RequestParam String username, @RequestParam String password,
                 @RequestParam(required = false) String role) {
+            CompletableFuture<UserEntity> registration;
             try {
-                UserEntity user = authService.register(email, username, password,
-                        role != null ? role : "USER");
-                String token = authService.login(email, password);
+                registration = authService.registerAsync(email, username, password, role != null ? role : "USER");
+            } catch (Exception e) {
+                return CompletableFuture.completedFuture(failed(e, 400));
+            }
+            return registration.handle((user, error) -> {
+                if (error != null) {
+                    return failed(error, 400);
+                }
+                String token = authService.issueToken(email, user);
                 try {
-                    authService.markUserActiveByEmail(email, true);
+                    authService.markUserOnline(email, true);
                 } catch (Exception ex) {
                     /* ignore */ }
                 return ResponseEntity.ok(new AuthResponse(token, user.getUsername(), user.getRole()));
-            } catch (Exception e) {
-                return ResponseEntity.status(400)
-                        .body(new AuthResponse(null, null, null, e.getMessage()));
+            });
+        }
+
+        private ResponseEntity<AuthResponse> failed(Throwable error, int status) {
+            Throwable cause = unwrap(error);
+            if (cause instanceof PasswordHashingBusyException busy) {
+                return ResponseEntity.status(429)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(busy.getRetryAfterSeconds()))
+                        .body(new AuthResponse(null, null, null, busy.getMessage()));
             }
+            return ResponseEntity.status(status).body(new AuthResponse(null, null, null, cause.getMessage()));
         }
 
         @PostMapping("/logout")
         public ResponseEntity<Void> apiLogout(@RequestParam String email) {
             try {
-                authService.markUserActiveByEmail(email, false);
+                authService.markUserOnline(email, false);
             } catch (Exception ex) {
                 /* ignore */ }
             return ResponseEntity.ok().build();
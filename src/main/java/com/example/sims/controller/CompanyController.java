@@ -11,62 +11,91 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.example.sims.dto.ApplicationListingRow;
+import com.example.sims.dto.BulkStatusRequest;
 import com.example.sims.entity.ApplicationEntity;
 import com.example.sims.entity.CompanyEntity;
 import com.example.sims.entity.InternshipEntity;
-import com.example.sims.entity.UserEntity;
 import com.example.sims.repo.ApplicationRepository;
-import com.example.sims.service.AuthService;
+import com.example.sims.security.AuthenticatedUser;
+import com.example.sims.service.ChangeVersions;
 import com.example.sims.service.CompanyService;
-
-import jakarta.servlet.http.HttpServletRequest;
+import com.example.sims.service.DashboardAssembler;
+import com.example.sims.service.SeatsInUseException;
+import com.example.sims.service.SeatsUnavailableException;
 
 @Controller
 @RequestMapping("/company")
 public class CompanyController {
     private final CompanyService companyService;
-    private final AuthService authService;
+    private final DashboardAssembler dashboardAssembler;
+    private final ChangeVersions changeVersions;
 
     @Autowired
     private ApplicationRepository applicationRepository;
 
-    public CompanyController(CompanyService companyService, AuthService authService) {
+    public CompanyController(CompanyService companyService, DashboardAssembler dashboardAssembler,
+            ChangeVersions changeVersions) {
         this.companyService = companyService;
-        this.authService = authService;
+        this.dashboardAssembler = dashboardAssembler;
+        this.changeVersions = changeVersions;
     }
 
-    private CompanyEntity getAuthenticatedCompany(HttpServletRequest request) {
-        String userEmail = (String) request.getAttribute("userEmail");
-        if (userEmail == null) {
+    // company id of the caller, or null when the caller is not a company
+    private Long companyId(AuthenticatedUser principal) {
+        if (principal == null || !principal.isCompany()) {
             return null;
         }
+        return principal.profileId();
+    }
 
-        UserEntity user = authService.getUserByEmail(userEmail);
-        if (user == null || !"COMPANY".equals(user.getRole())) {
+    private CompanyEntity loadCompany(AuthenticatedUser principal) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return null;
         }
-
-        Optional<CompanyEntity> companyOpt = companyService.getCompanyByUserId(user.getId());
-        return companyOpt.orElse(null);
+        return companyService.getCompanyById(companyId).orElse(null);
     }
 
     @GetMapping("/dashboard")
-    public String dashboard(HttpServletRequest request, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+    public String dashboard(AuthenticatedUser principal, Model model) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
-        List<InternshipEntity> internships = companyService.getCompanyInternships(company.getId());
-        Long totalApplications = companyService.getTotalApplications(company.getId());
-        Long pendingApplications = companyService.getPendingApplications(company.getId());
+        // the four lookups are independent, load them concurrently
+        CompanyEntity company;
+        List<InternshipEntity> internships;
+        Long totalApplications;
+        Long pendingApplications;
+        boolean partial;
+        try (DashboardAssembler.Scope scope = dashboardAssembler.open()) {
+            var companyPart = scope.fork(() -> loadCompany(principal), null);
+            var internshipsPart = scope.fork(() -> companyService.getCompanyInternships(companyId),
+                    List.<InternshipEntity>of());
+            var totalPart = scope.fork(() -> companyService.getTotalApplications(companyId), 0L);
+            var pendingPart = scope.fork(() -> companyService.getPendingApplications(companyId), 0L);
+            scope.join();
+            company = companyPart.get();
+            internships = internshipsPart.get();
+            totalApplications = totalPart.get();
+            pendingApplications = pendingPart.get();
+            partial = scope.isPartial();
+        }
 
-        model.addAttribute("company", company);
-        model.addAttribute("username", company.getCompanyName());
+        // a slow or failed company lookup shows the page without the name instead of logging out
+        if (company != null) {
+            model.addAttribute("company", company);
+        }
+        model.addAttribute("username", company != null ? company.getCompanyName() : principal.email());
+        model.addAttribute("partial", partial);
         model.addAttribute("totalInternships", internships.size());
         model.addAttribute("totalApplications", totalApplications);
         model.addAttribute("pendingApplications", pendingApplications);
@@ -76,8 +105,8 @@ public class CompanyController {
     }
 
     @GetMapping("/profile")
-    public String profile(HttpServletRequest request, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
+    public String profile(AuthenticatedUser principal, Model model) {
+        CompanyEntity company = loadCompany(principal);
         if (company == null) {
             return "redirect:/auth/login";
         }
@@ -88,56 +117,48 @@ public class CompanyController {
     }
 
     @PostMapping("/profile/update")
-    public String updateProfile(HttpServletRequest request,
+    public String updateProfile(AuthenticatedUser principal,
             @RequestParam String companyName,
             @RequestParam String address,
             @RequestParam String contactEmail,
             @RequestParam String contactPhone,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
-        company.setCompanyName(companyName);
-        company.setAddress(address);
-        company.setContactEmail(contactEmail);
-        company.setContactPhone(contactPhone);
-        companyService.updateCompanyProfile(company);
+        companyService.updateCompanyProfile(companyId, companyName, address, contactEmail, contactPhone);
 
         redirectAttributes.addFlashAttribute("success", "Profile updated successfully!");
         return "redirect:/company/profile";
     }
 
     @GetMapping("/internships")
-    public String internships(HttpServletRequest request, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+    public String internships(AuthenticatedUser principal, Model model) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
-        List<InternshipEntity> internships = companyService.getCompanyInternships(company.getId());
-        model.addAttribute("company", company);
-        model.addAttribute("username", company.getCompanyName());
+        List<InternshipEntity> internships = companyService.getCompanyInternships(companyId);
         model.addAttribute("internships", internships);
 
         return "company-template/manage-internship";
     }
 
     @GetMapping("/internships/create")
-    public String createInternshipForm(HttpServletRequest request, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+    public String createInternshipForm(AuthenticatedUser principal, Model model) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
-        model.addAttribute("company", company);
-        model.addAttribute("username", company.getCompanyName());
         return "company-template/create-internship";
     }
 
     @PostMapping("/internships/create")
-    public String createInternship(HttpServletRequest request,
+    public String createInternship(AuthenticatedUser principal,
             @RequestParam String title,
             @RequestParam String description,
             @RequestParam String location,
@@ -145,13 +166,13 @@ public class CompanyController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         InternshipEntity internship = new InternshipEntity();
-        internship.setCompany(company);
+        internship.setCompany(companyService.getCompanyReference(companyId));
         internship.setTitle(title);
         internship.setDescription(description);
         internship.setLocation(location);
@@ -159,31 +180,34 @@ public class CompanyController {
         internship.setStartDate(startDate);
         internship.setEndDate(endDate);
 
-        companyService.createInternship(internship);
+        try {
+            companyService.createInternship(internship);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/company/internships";
+        }
         redirectAttributes.addFlashAttribute("success", "Internship created successfully!");
         return "redirect:/company/internships";
     }
 
     @GetMapping("/internships/{id}/edit")
-    public String editInternshipForm(HttpServletRequest request, @PathVariable Long id, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+    public String editInternshipForm(AuthenticatedUser principal, @PathVariable Long id, Model model) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         Optional<InternshipEntity> internshipOpt = companyService.getInternshipById(id);
-        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(company.getId())) {
+        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(companyId)) {
             return "redirect:/company/internships";
         }
 
-        model.addAttribute("company", company);
-        model.addAttribute("username", company.getCompanyName());
         model.addAttribute("internship", internshipOpt.get());
         return "company-template/edit-internship";
     }
 
     @PostMapping("/internships/{id}/update")
-    public String updateInternship(HttpServletRequest request,
+    public String updateInternship(AuthenticatedUser principal,
             @PathVariable Long id,
             @RequestParam String title,
             @RequestParam String description,
@@ -192,13 +216,13 @@ public class CompanyController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         Optional<InternshipEntity> internshipOpt = companyService.getInternshipById(id);
-        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(company.getId())) {
+        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(companyId)) {
             return "redirect:/company/internships";
         }
 
@@ -210,21 +234,26 @@ public class CompanyController {
         internship.setStartDate(startDate);
         internship.setEndDate(endDate);
 
-        companyService.updateInternship(internship);
+        try {
+            companyService.updateInternship(internship);
+        } catch (SeatsInUseException | IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/company/internships";
+        }
         redirectAttributes.addFlashAttribute("success", "Internship updated successfully!");
         return "redirect:/company/internships";
     }
 
     @PostMapping("/internships/{id}/delete")
-    public String deleteInternship(HttpServletRequest request, @PathVariable Long id,
+    public String deleteInternship(AuthenticatedUser principal, @PathVariable Long id,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         Optional<InternshipEntity> internshipOpt = companyService.getInternshipById(id);
-        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(company.getId())) {
+        if (internshipOpt.isEmpty() || !internshipOpt.get().getCompany().getId().equals(companyId)) {
             return "redirect:/company/internships";
         }
 
@@ -234,28 +263,35 @@ public class CompanyController {
     }
 
     @GetMapping("/applications")
-    public String applications(HttpServletRequest request, Model model) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+    public String applications(AuthenticatedUser principal, Model model, WebRequest request) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
+        // rows also show student and internship details that change elsewhere
+        ChangeVersions.Stamp stamp = changeVersions.stamp(ChangeVersions.companyApplications(companyId),
+                ChangeVersions.STUDENTS, ChangeVersions.INTERNSHIPS);
+        if (ConditionalGet.notModified(request, stamp)) {
+            return null;
+        }
 
-        List<ApplicationEntity> applications = companyService.getCompanyApplications(company.getId());
-        model.addAttribute("company", company);
-        model.addAttribute("username", company.getCompanyName());
+        List<ApplicationListingRow> applications = companyService.getCompanyApplications(companyId);
         model.addAttribute("applications", applications);
 
         return "company-template/view-application";
     }
 
     @GetMapping("/applications/{id}")
-    public String viewApplication(@PathVariable Long id, HttpServletRequest request, Model model) {
-        // CompanyEntity company = getAuthenticatedCompany(request);
+    public String viewApplication(@PathVariable Long id, AuthenticatedUser principal, Model model) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
+            return "redirect:/auth/login";
+        }
 
         // Use the repository directly or a service
         Optional<ApplicationEntity> appOpt = applicationRepository.findById(id);
 
-        if (appOpt.isPresent()) {
+        if (appOpt.isPresent() && appOpt.get().getInternship().getCompany().getId().equals(companyId)) {
             ApplicationEntity application = appOpt.get();
 
             // --- THE FIX ---
@@ -275,40 +311,85 @@ public class CompanyController {
         return "redirect:/company/applications";
     }
 
+    // Bulk triage: {"ids": [...], "status": "APPROVED" | "REJECTED"}. All or nothing.
+    @PostMapping("/api/applications/status")
+    public org.springframework.http.ResponseEntity<java.util.Map<String, Object>> updateApplicationStatuses(
+            AuthenticatedUser principal, @RequestBody BulkStatusRequest request) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
+            return org.springframework.http.ResponseEntity.status(401).build();
+        }
+        ApplicationEntity.ApplicationStatus status;
+        if ("APPROVED".equals(request.status())) {
+            status = ApplicationEntity.ApplicationStatus.APPROVED;
+        } else if ("REJECTED".equals(request.status())) {
+            status = ApplicationEntity.ApplicationStatus.REJECTED;
+        } else {
+            return org.springframework.http.ResponseEntity.badRequest()
+                    .body(java.util.Map.of("error", "status must be APPROVED or REJECTED"));
+        }
+        if (request.ids() == null) {
+            return org.springframework.http.ResponseEntity.badRequest().body(java.util.Map.of("error", "ids missing"));
+        }
+        try {
+            CompanyService.BulkStatusResult result = companyService.updateApplicationStatuses(companyId,
+                    request.ids(), status);
+            return org.springframework.http.ResponseEntity
+                    .ok(java.util.Map.of("changed", result.changed(), "unchanged", result.unchanged()));
+        } catch (IllegalArgumentException e) {
+            return org.springframework.http.ResponseEntity.badRequest().body(java.util.Map.of("error", e.getMessage()));
+        } catch (SeatsUnavailableException e) {
+            return org.springframework.http.ResponseEntity.status(409)
+                    .body(java.util.Map.of("error", e.getMessage(), "internshipId", e.getInternshipId()));
+        } catch (IllegalStateException e) {
+            return org.springframework.http.ResponseEntity.status(409).body(java.util.Map.of("error", e.getMessage()));
+        }
+    }
+
     @PostMapping("/applications/{id}/approve")
-    public String approveApplication(HttpServletRequest request, @PathVariable Long id,
+    public String approveApplication(AuthenticatedUser principal, @PathVariable Long id,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         Optional<ApplicationEntity> applicationOpt = companyService.getApplicationById(id);
         if (applicationOpt.isEmpty() ||
-                !applicationOpt.get().getInternship().getCompany().getId().equals(company.getId())) {
+                !applicationOpt.get().getInternship().getCompany().getId().equals(companyId)) {
             return "redirect:/company/applications";
         }
 
-        companyService.updateApplicationStatus(id, ApplicationEntity.ApplicationStatus.APPROVED);
+        try {
+            companyService.updateApplicationStatus(id, ApplicationEntity.ApplicationStatus.APPROVED);
+        } catch (SeatsUnavailableException | IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/company/applications";
+        }
         redirectAttributes.addFlashAttribute("success", "Application approved!");
         return "redirect:/company/applications";
     }
 
     @PostMapping("/applications/{id}/reject")
-    public String rejectApplication(HttpServletRequest request, @PathVariable Long id,
+    public String rejectApplication(AuthenticatedUser principal, @PathVariable Long id,
             RedirectAttributes redirectAttributes) {
-        CompanyEntity company = getAuthenticatedCompany(request);
-        if (company == null) {
+        Long companyId = companyId(principal);
+        if (companyId == null) {
             return "redirect:/auth/login";
         }
 
         Optional<ApplicationEntity> applicationOpt = companyService.getApplicationById(id);
         if (applicationOpt.isEmpty() ||
-                !applicationOpt.get().getInternship().getCompany().getId().equals(company.getId())) {
+                !applicationOpt.get().getInternship().getCompany().getId().equals(companyId)) {
             return "redirect:/company/applications";
         }
 
-        companyService.updateApplicationStatus(id, ApplicationEntity.ApplicationStatus.REJECTED);
+        try {
+            companyService.updateApplicationStatus(id, ApplicationEntity.ApplicationStatus.REJECTED);
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+            return "redirect:/company/applications";
+        }
         redirectAttributes.addFlashAttribute("success", "Application rejected!");
         return "redirect:/company/applications";
     }
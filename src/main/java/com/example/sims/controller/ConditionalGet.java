@@ -0,0 +1,32 @@
+package com.example.sims.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import com.example.sims.service.ChangeVersions;
+
+// Answers If-None-Match / If-Modified-Since from ChangeVersions. When this returns true
+// the 304 has been prepared and the handler should return null without loading anything.
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static boolean notModified(WebRequest request, ChangeVersions.Stamp stamp) {
+        ServletWebRequest servletRequest = (ServletWebRequest) request;
+        // cached per user and always revalidated; without this the security defaults forbid storing
+        if (servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+        // a page carrying a one-off flash message must be rendered, not revalidated
+        var flash = RequestContextUtils.getInputFlashMap(servletRequest.getRequest());
+        if (flash != null && !flash.isEmpty()) {
+            return false;
+        }
+        return request.checkNotModified(stamp.etag(), stamp.lastModified());
+    }
+}
@@ -4,20 +4,13 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
-import com.example.sims.entity.UserEntity;
-import com.example.sims.service.AuthService;
+import com.example.sims.security.AuthenticatedUser;
 
 import jakarta.servlet.http.HttpServletRequest;
 
 
 @Controller
 public class HomeController {
-    private final AuthService authService;
-
-    public HomeController(AuthService authService) {
-        this.authService = authService;
-    }
-
     @GetMapping("/")
     public String home(HttpServletRequest request, Model model) {
 
@@ -25,26 +18,15 @@ public class HomeController {
     }
 
     @GetMapping("/dashboard")
-    public String dashboard(HttpServletRequest request, Model model) {
-        String userEmail = (String) request.getAttribute("userEmail");
-
-        if (userEmail == null) {
+    public String dashboard(AuthenticatedUser principal, Model model) {
+        if (principal == null) {
             return "redirect:/auth/login";
         }
 
-        UserEntity user = authService.getUserByEmail(userEmail);
-        if (user == null) {
-            return "redirect:/auth/login";
-        }
-
-        model.addAttribute("user", user);
-        model.addAttribute("username", user.getUsername());
-        model.addAttribute("role", user.getRole());
-
         // Route to role-specific dashboard
-        if ("ADMIN".equals(user.getRole())) {
+        if (principal.isAdmin()) {
             return "redirect:/admin/dashboard";
-        } else if ("COMPANY".equals(user.getRole())) {
+        } else if (principal.isCompany()) {
             return "redirect:/company/dashboard";
         }
 
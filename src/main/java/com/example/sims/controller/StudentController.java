@@ -1,89 +1,140 @@
 package com.example.sims.controller;
 
+import java.time.LocalDate;
 import java.util.Optional;
 import java.util.List;
+import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.example.sims.dto.StudentDashboardCounts;
 import com.example.sims.entity.StudentProfileEntity;
 import com.example.sims.entity.UserEntity;
 import com.example.sims.entity.InternshipEntity;
 import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.security.AuthenticatedUser;
 import com.example.sims.service.AuthService;
+import com.example.sims.service.ChangeVersions;
+import com.example.sims.service.DashboardAssembler;
+import com.example.sims.service.InternshipCatalog;
+import com.example.sims.service.InternshipFacetIndex;
+import com.example.sims.service.InternshipSearchIndex;
+import com.example.sims.service.IdempotencyKeyReusedException;
 import com.example.sims.service.StudentService;
 
-import jakarta.servlet.http.HttpServletRequest;
-
 @Controller
 @RequestMapping("/student")
 public class StudentController {
     private final StudentService studentService;
     private final AuthService authService;
-
-    public StudentController(StudentService studentService, AuthService authService) {
+    private final DashboardAssembler dashboardAssembler;
+    private final InternshipCatalog internshipCatalog;
+    private final ChangeVersions changeVersions;
+    private final InternshipSearchIndex internshipSearchIndex;
+    private final InternshipFacetIndex internshipFacetIndex;
+
+    public StudentController(StudentService studentService, AuthService authService,
+            DashboardAssembler dashboardAssembler, InternshipCatalog internshipCatalog,
+            ChangeVersions changeVersions, InternshipSearchIndex internshipSearchIndex,
+            InternshipFacetIndex internshipFacetIndex) {
         this.studentService = studentService;
         this.authService = authService;
+        this.dashboardAssembler = dashboardAssembler;
+        this.internshipCatalog = internshipCatalog;
+        this.changeVersions = changeVersions;
+        this.internshipSearchIndex = internshipSearchIndex;
+        this.internshipFacetIndex = internshipFacetIndex;
+    }
+
+    // the application pages show the student's applications with internship and company names
+    private ChangeVersions.Stamp applicationsStamp(Long studentId) {
+        return changeVersions.stamp(ChangeVersions.studentApplications(studentId), ChangeVersions.INTERNSHIPS);
     }
 
-    private StudentProfileEntity getAuthenticatedStudent(HttpServletRequest request) {
-        String userEmail = (String) request.getAttribute("userEmail");
-        if (userEmail == null) {
+    // student profile id of the caller, or null when the caller has no profile
+    private Long studentId(AuthenticatedUser principal) {
+        if (principal == null || !principal.isStudent()) {
             return null;
         }
+        return principal.profileId();
+    }
 
-        UserEntity user = authService.getUserByEmail(userEmail);
-        if (user == null) {
+    private StudentProfileEntity loadStudent(AuthenticatedUser principal) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return null;
         }
-
-        Optional<StudentProfileEntity> studentOpt = studentService.getStudentByUserId(user.getId());
-        return studentOpt.orElse(null);
+        return studentService.getStudentById(studentId).orElse(null);
     }
 
     // dashboard
     @GetMapping("/dashboard")
-    public String dashboard(HttpServletRequest request, Model model) {
-        String userEmail = (String) request.getAttribute("userEmail");
-        if (userEmail == null) {
+    public String dashboard(AuthenticatedUser principal, Model model) {
+        if (principal == null) {
             return "redirect:/auth/login";
         }
-        UserEntity user = authService.getUserByEmail(userEmail);
+        Long studentId = studentId(principal);
+
+        // profile, applications and counts are independent, load them concurrently
+        StudentProfileEntity student;
+        List<ApplicationEntity> apps;
+        StudentDashboardCounts counts;
+        boolean profileLoaded;
+        boolean applicationsLoaded;
+        boolean partial;
+        try (DashboardAssembler.Scope scope = dashboardAssembler.open()) {
+            var studentPart = scope.fork(() -> loadStudent(principal), null);
+            var appsPart = scope.fork(() -> studentId != null ? studentService.getStudentApplications(studentId)
+                    : List.<ApplicationEntity>of(), List.<ApplicationEntity>of());
+            var countsPart = scope.fork(() -> studentId != null ? studentService.getDashboardCounts(studentId)
+                    : null, null);
+            scope.join();
+            student = studentPart.get();
+            apps = appsPart.get();
+            counts = countsPart.get();
+            profileLoaded = studentPart.isAvailable();
+            applicationsLoaded = appsPart.isAvailable();
+            partial = scope.isPartial();
+        }
+
+        UserEntity user = student != null ? student.getUser() : authService.getUserById(principal.userId());
         if (user == null) {
             return "redirect:/auth/login";
         }
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student != null) {
+        String userEmail = principal.email();
+        // a part that timed out or failed is left out and flagged, not shown as empty
+        model.addAttribute("partial", partial);
+        model.addAttribute("profileLoaded", profileLoaded);
+        model.addAttribute("applicationsLoaded", applicationsLoaded);
+        if (studentId != null) {
 
-            List<ApplicationEntity> apps = studentService.getStudentApplications(student.getId());
             model.addAttribute("applications", apps);
-            model.addAttribute("applicationCount", apps.size());
-
-            List<InternshipEntity> allInternships = studentService.getAllInternships();
-
-            int availableCount = Math.max(0, allInternships.size() - apps.size()); // this one is for calculating
-                                                                                   // available internships
-
-            // count available internships
-            model.addAttribute("availableCount", availableCount);
-            long approvedCount = apps.stream()
-                    .filter(a -> a.getStatus() == ApplicationEntity.ApplicationStatus.APPROVED)
-                    .count();
-            model.addAttribute("approvedCount", approvedCount);
-
-            // count pending applications
-            long pendingCount = apps.stream()
-                    .filter(a -> a.getStatus() == ApplicationEntity.ApplicationStatus.PENDING)
-                    .count();
-            model.addAttribute("pendingCount", pendingCount);
 
+            // card counts; open internships not yet applied to count as available
+            if (counts != null) {
+                model.addAttribute("applicationCount", counts.getApplied());
+                model.addAttribute("availableCount", counts.getAvailable());
+                model.addAttribute("approvedCount", counts.getApproved());
+                model.addAttribute("pendingCount", counts.getPending());
+            } else if (applicationsLoaded) {
+                model.addAttribute("applicationCount", apps.size());
+            }
+        }
+        if (student != null) {
             // for profile display
             model.addAttribute("student", student);
             model.addAttribute("fullname", student.getFullName());
@@ -101,13 +152,13 @@ public class StudentController {
 
     // user-profile
     @GetMapping("/user-profile")
-    public String userProfile(HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
+    public String userProfile(AuthenticatedUser principal, Model model) {
+        StudentProfileEntity student = loadStudent(principal);
         if (student == null) {
             return "redirect:/auth/login";
         }
 
-        String userEmail = (String) request.getAttribute("userEmail");
+        String userEmail = principal.email();
 
         model.addAttribute("student", student);
         model.addAttribute("email", userEmail);
@@ -122,20 +173,17 @@ public class StudentController {
 
     // for editing profile
     @PostMapping("/edit-profile")
-    public String editProfile(HttpServletRequest request,
+    public String editProfile(AuthenticatedUser principal,
             @RequestParam String fullname,
             @RequestParam String major,
             @RequestParam Integer year,
             RedirectAttributes redirectAttributes) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return "redirect:/auth/login";
         }
 
-        student.setFullName(fullname);
-        student.setMajor(major);
-        student.setYear(year);
-        studentService.updateStudentProfile(student);
+        studentService.updateStudentProfile(studentId, fullname, major, year);
 
         redirectAttributes.addFlashAttribute("success", "Profile updated successfully!");
 
@@ -144,96 +192,148 @@ public class StudentController {
 
     // browse internship
     @GetMapping("/browse-internship")
-    public String browseInternship(HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student != null) {
-            model.addAttribute("student", student);
+    public String browseInternship(@RequestParam(required = false) String q, Model model) {
+        // shared in-memory catalog and search index, no database access
+        if (q != null && !q.isBlank()) {
+            InternshipSearchIndex.Page results = internshipSearchIndex.search(q, 0,
+                    InternshipSearchIndex.MAX_PAGE_SIZE);
+            model.addAttribute("internships", results.hits().stream().map(InternshipSearchIndex.Hit::internship)
+                    .toList());
+            model.addAttribute("q", q);
+            model.addAttribute("totalResults", results.total());
+        } else {
+            model.addAttribute("internships", internshipCatalog.current().entries());
         }
 
-        model.addAttribute("internships", studentService.getAllInternships());
-
         return "user-template/browse-internship";
     }
 
+    // Ranked full-text search over title, company, location and description
+    @GetMapping("/api/internships/search")
+    public org.springframework.http.ResponseEntity<InternshipSearchIndex.Page> searchInternships(
+            AuthenticatedUser principal,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if (studentId(principal) == null)
+            return org.springframework.http.ResponseEntity.status(401).build();
+        return org.springframework.http.ResponseEntity.ok(internshipSearchIndex.search(q, page, size));
+    }
+
+    // Filtered internships with per-facet counts, answered from in-memory bitmaps
+    @GetMapping("/api/internships/facets")
+    public org.springframework.http.ResponseEntity<InternshipFacetIndex.Result> filterInternships(
+            AuthenticatedUser principal,
+            @RequestParam(required = false) List<String> location,
+            @RequestParam(required = false) List<Long> company,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endTo,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        if (studentId(principal) == null)
+            return org.springframework.http.ResponseEntity.status(401).build();
+        InternshipFacetIndex.Filter filter;
+        try {
+            filter = new InternshipFacetIndex.Filter(location, company, startFrom, endTo,
+                    InternshipFacetIndex.Status.parse(status), available);
+        } catch (IllegalArgumentException ex) {
+            return org.springframework.http.ResponseEntity.badRequest().build();
+        }
+        return org.springframework.http.ResponseEntity.ok(internshipFacetIndex.query(filter, page, size));
+    }
+
+    // Pre-encoded catalog JSON; clients revalidate with If-None-Match and usually get a 304
     @GetMapping("/api/internships")
-    public org.springframework.http.ResponseEntity<java.util.List<java.util.Map<String, Object>>> studentInternships(
-            HttpServletRequest request) {
+    public org.springframework.http.ResponseEntity<byte[]> studentInternships(AuthenticatedUser principal,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         // require authenticated student
-        StudentProfileEntity s = getAuthenticatedStudent(request);
-        if (s == null)
+        if (studentId(principal) == null)
             return org.springframework.http.ResponseEntity.status(401).build();
-        java.util.List<com.example.sims.entity.InternshipEntity> list = studentService.getAllInternships();
-        java.util.List<java.util.Map<String, Object>> out = new java.util.ArrayList<>();
-        for (var i : list) {
-            java.util.Map<String, Object> m = new java.util.HashMap<>();
-            m.put("id", i.getId());
-            m.put("title", i.getTitle());
-            m.put("description", i.getDescription());
-            m.put("location", i.getLocation());
-            m.put("seats", i.getSeats());
-            m.put("startDate", i.getStartDate());
-            m.put("endDate", i.getEndDate());
-            m.put("createdAt", i.getCreatedAt());
-            m.put("company", i.getCompanyName());
-            out.add(m);
+        InternshipCatalog.Snapshot catalog = internshipCatalog.current();
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? catalog.gzipEtag() : catalog.etag();
+        org.springframework.http.ResponseEntity.BodyBuilder response = org.springframework.http.ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Catalog-Version", String.valueOf(catalog.version()));
+        if (ifNoneMatch != null && (ifNoneMatch.contains(catalog.etag()) || ifNoneMatch.contains(catalog.gzipEtag()))) {
+            return org.springframework.http.ResponseEntity.status(304)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalog.gzippedJson());
         }
-        return org.springframework.http.ResponseEntity.ok(out);
+        return response.body(catalog.json());
     }
 
     @GetMapping("/user-application")
-    public String userApplication(HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null) {
+    public String userApplication(AuthenticatedUser principal, Model model, WebRequest request) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return "redirect:/auth/login";
         }
+        if (ConditionalGet.notModified(request, applicationsStamp(studentId))) {
+            return null;
+        }
 
-        model.addAttribute("student", student);
-        model.addAttribute("applications", studentService.getStudentApplications(student.getId()));
+        model.addAttribute("applications", studentService.getStudentApplications(studentId));
 
         return "user-template/user-application";
     }
 
     // display pending applications
     @GetMapping("/user-application/pending")
-    public String viewPendingApplications(HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null) {
+    public String viewPendingApplications(AuthenticatedUser principal, Model model, WebRequest request) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return "redirect:/auth/login";
         }
+        if (ConditionalGet.notModified(request, applicationsStamp(studentId))) {
+            return null;
+        }
 
-        List<ApplicationEntity> allApps = studentService.getStudentApplications(student.getId());
+        List<ApplicationEntity> allApps = studentService.getStudentApplications(studentId);
         List<ApplicationEntity> pendingApps = allApps.stream()
                 .filter(a -> a.getStatus() == ApplicationEntity.ApplicationStatus.PENDING)
                 .toList();
 
         model.addAttribute("applications", pendingApps);
-        model.addAttribute("student", student);
 
         return "user-template/pending-application";
     }
 
     // display approved applications
     @GetMapping("/user-application/approved")
-    public String viewApprovedApplications(HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null) {
+    public String viewApprovedApplications(AuthenticatedUser principal, Model model, WebRequest request) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return "redirect:/auth/login";
         }
-        List<ApplicationEntity> allApps = studentService.getStudentApplications(student.getId());
+        if (ConditionalGet.notModified(request, applicationsStamp(studentId))) {
+            return null;
+        }
+        List<ApplicationEntity> allApps = studentService.getStudentApplications(studentId);
         List<ApplicationEntity> approvedApps = allApps.stream()
                 .filter(a -> a.getStatus() == ApplicationEntity.ApplicationStatus.APPROVED)
                 .toList();
 
         model.addAttribute("applications", approvedApps);
-        model.addAttribute("student", student);
 
         return "user-template/approved-application";
     }
 
     // student apply for internship
     @GetMapping("/apply/{internshipId}")
-    public String applyForm(@PathVariable Long internshipId, HttpServletRequest request, Model model) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
+    public String applyForm(@PathVariable Long internshipId, AuthenticatedUser principal, Model model) {
+        StudentProfileEntity student = loadStudent(principal);
         if (student == null) {
             return "redirect:/auth/login";
         }
@@ -253,41 +353,42 @@ public class StudentController {
 
         model.addAttribute("student", student);
         model.addAttribute("internship", internship);
+        // sent back with the form, so a double-click or a resubmit applies only once
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
 
         return "user-template/apply-internship";
     }
 
     @PostMapping("/apply/{internshipId}")
-    public String submitApplication(@PathVariable Long internshipId, HttpServletRequest request,
-            @RequestParam String coverLetter, RedirectAttributes redirectAttributes) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null) {
+    public String submitApplication(@PathVariable Long internshipId, AuthenticatedUser principal,
+            @RequestParam String coverLetter, @RequestParam(required = false) String idempotencyKey,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyHeader,
+            RedirectAttributes redirectAttributes) {
+        Long studentId = studentId(principal);
+        if (studentId == null) {
             return "redirect:/auth/login";
         }
 
-        Optional<InternshipEntity> internshipOpt = studentService.getInternshipById(internshipId);
-        if (!internshipOpt.isPresent()) {
-            redirectAttributes.addFlashAttribute("error", "Internship not found");
-            return "redirect:/student/browse-internship";
-        }
-
-        InternshipEntity internship = internshipOpt.get();
-
-        Optional<ApplicationEntity> existingApp = studentService.getStudentApplicationForInternship(student.getId(),
-                internshipId);
-        if (existingApp.isPresent()) {
-            redirectAttributes.addFlashAttribute("error", "You have already applied for this internship");
-            return "redirect:/student/browse-internship";
-        }
-
         try {
-            ApplicationEntity application = new ApplicationEntity(student, internship);
-            application.setCoverLetter(coverLetter);
-            studentService.createApplication(application);
+            StudentService.Submission submission = studentService.submitApplication(studentId, internshipId,
+                    coverLetter, idempotencyHeader != null ? idempotencyHeader : idempotencyKey);
+            if (!submission.created()) {
+                // a repeat of an earlier submit: show what was stored the first time
+                redirectAttributes.addFlashAttribute("success", "You have already applied for this internship");
+                return "redirect:/student/view-application/" + submission.application().getId();
+            }
             redirectAttributes.addFlashAttribute("success", "Application submitted successfully!");
 
             return "redirect:/student/user-application";
 
+        } catch (IdempotencyKeyReusedException e) {
+            // a client bug rather than a retry: nothing is stored and nothing is shown as applied
+            throw new org.springframework.web.server.ResponseStatusException(
+                    org.springframework.http.HttpStatus.CONFLICT, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", e.getMessage());
+
+            return "redirect:/student/browse-internship";
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("error", "Failed to submit application: " + e.getMessage());
 
@@ -297,10 +398,10 @@ public class StudentController {
 
     // for viewing application details
     @GetMapping("/view-application/{id}")
-    public String viewApplication(@PathVariable Long id, HttpServletRequest request, Model model,
+    public String viewApplication(@PathVariable Long id, AuthenticatedUser principal, Model model,
             RedirectAttributes redirectAttributes) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
-        if (student == null)
+        Long studentId = studentId(principal);
+        if (studentId == null)
             return "redirect:/auth/login";
 
         Optional<ApplicationEntity> appOpt = studentService.getApplicationById(id);
@@ -308,7 +409,7 @@ public class StudentController {
         if (appOpt.isPresent()) {
             ApplicationEntity application = appOpt.get();
 
-            if (!application.getStudent().getId().equals(student.getId())) {
+            if (!application.getStudent().getId().equals(studentId)) {
                 return "redirect:/student/user-application";
             }
 
@@ -324,11 +425,11 @@ public class StudentController {
 
     // for uploading cv
     @PostMapping("/upload-cv")
-    public String uploadCv(HttpServletRequest request,
+    public String uploadCv(AuthenticatedUser principal,
             @RequestParam("cvFile") MultipartFile file,
 
             RedirectAttributes redirectAttributes) {
-        StudentProfileEntity student = getAuthenticatedStudent(request);
+        StudentProfileEntity student = loadStudent(principal);
         if (student == null) {
             return "redirect:/auth/login";
         }
@@ -350,8 +451,7 @@ public class StudentController {
 
             // Upload new CV
             String fileName = studentService.uploadCvFile(file, student.getId());
-            student.setCvFile(fileName);
-            studentService.updateStudentProfile(student);
+            studentService.updateCvFile(student.getId(), fileName);
             redirectAttributes.addFlashAttribute("success", "CV uploaded successfully!");
             return "redirect:/student/user-profile";
         } catch (Exception e) {
@@ -0,0 +1,23 @@
+package com.example.sims.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+// Read model for application listings: one flat row per application with the student,
+// internship and company columns the lists show, selected in a single joined query.
+public record ApplicationListingRow(
+        Long id,
+        ApplicationStatus status,
+        LocalDateTime appliedAt,
+        Long studentId,
+        String studentCode,
+        String studentName,
+        String studentMajor,
+        String studentEmail,
+        Long internshipId,
+        String internshipTitle,
+        String internshipLocation,
+        Long companyId,
+        String companyName) {
+}
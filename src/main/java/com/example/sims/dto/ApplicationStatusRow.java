@@ -0,0 +1,12 @@
+package com.example.sims.dto;
+
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+// What a bulk status change needs to know about each application, read in the same
+// query that checks the applications belong to the company.
+public record ApplicationStatusRow(
+        Long id,
+        ApplicationStatus status,
+        Long studentId,
+        Long internshipId) {
+}
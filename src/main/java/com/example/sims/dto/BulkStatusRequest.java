@@ -0,0 +1,7 @@
+package com.example.sims.dto;
+
+import java.util.List;
+
+// Body of a bulk triage request: the applications and the status to move them to
+public record BulkStatusRequest(List<Long> ids, String status) {
+}
@@ -0,0 +1,15 @@
+package com.example.sims.dto;
+
+// Card counts of the student dashboard, read in one aggregate query. An internship is
+// open until its end date has passed; available means open and not yet applied to.
+public interface StudentDashboardCounts {
+    long getOpenInternships();
+
+    long getApplied();
+
+    long getPending();
+
+    long getApproved();
+
+    long getAvailable();
+}
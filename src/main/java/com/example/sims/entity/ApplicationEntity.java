@@ -16,7 +16,8 @@ import jakarta.persistence.UniqueConstraint;
 
 @Entity
 @Table(name = "applications", uniqueConstraints = {
-        @UniqueConstraint(columnNames = { "student_id", "internship_id" })
+        @UniqueConstraint(columnNames = { "student_id", "internship_id" }),
+        @UniqueConstraint(columnNames = { "student_id", "idempotency_key" })
 })
 public class ApplicationEntity {
     @Id
@@ -41,6 +42,10 @@ public class ApplicationEntity {
     @Column(columnDefinition = "TEXT")
     private String coverLetter;
 
+    // Client-supplied key of the submission that created this application
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
     public ApplicationEntity() {
     }
 
@@ -104,6 +109,14 @@ public class ApplicationEntity {
         this.coverLetter = coverLetter;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
     public enum ApplicationStatus {
         PENDING, APPROVED, REJECTED
     }
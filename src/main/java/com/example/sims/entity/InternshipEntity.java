@@ -33,9 +33,14 @@ public class InternshipEntity {
     @Column(length = 100)
     private String location;
 
-    @Column(nullable = false)
+    // Changed by SeatAllocator.resize only, so it cannot drop below seatsTaken
+    @Column(nullable = false, updatable = false)
     private Integer seats;
 
+    // Maintained by InternshipRepository.takeSeat/releaseSeat only, never by entity saves
+    @Column(name = "seats_taken", nullable = false, insertable = false, updatable = false)
+    private Integer seatsTaken = 0;
+
     @Column(name = "start_date")
     private LocalDate startDate;
 
@@ -108,6 +113,10 @@ public class InternshipEntity {
         this.seats = seats;
     }
 
+    public Integer getSeatsTaken() {
+        return seatsTaken;
+    }
+
     public LocalDate getStartDate() {
         return startDate;
     }
@@ -1,29 +1,125 @@
 package com.example.sims.realtime;
 
-import java.io.IOException;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Pushes join/leave deltas of online users to admin dashboards. Changes are collected
+// by callers without blocking and a single dispatcher thread debounces them into at
+// most one "active-users" event per interval, plus periodic heartbeats.
+@Component
 public class ActiveUserNotifier {
-    private static final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
-
-    public static SseEmitter register() {
-        SseEmitter emitter = new SseEmitter(0L);
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((e) -> emitters.remove(emitter));
-        return emitter;
-    }
-
-    public static void notifyChange() {
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(SseEmitter.event().name("active-users").data("update"));
-            } catch (IOException e) {
-                emitters.remove(emitter);
+    @Value("${realtime.active-users.debounce-ms:1000}")
+    private long debounceMillis;
+
+    @Value("${realtime.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${realtime.client-queue-capacity:32}")
+    private int clientQueueCapacity;
+
+    // pending changes since the last dispatch, keyed by email
+    private final ConcurrentHashMap<String, PresenceTracker.OnlineUser> joined = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> left = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private SseBroadcaster broadcaster;
+    private ScheduledExecutorService dispatcher;
+
+    @PostConstruct
+    void start() {
+        broadcaster = new SseBroadcaster(clientQueueCapacity);
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "active-users-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, debounceMillis, debounceMillis, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleAtFixedRate(() -> broadcaster.broadcast(SseBroadcaster.Event.heartbeat()),
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        broadcaster.shutdown();
+    }
+
+    public SseEmitter register() {
+        return broadcaster.register();
+    }
+
+    public void userJoined(PresenceTracker.OnlineUser user) {
+        // a leave and re-join inside one window cancel out
+        if (left.remove(user.getEmail()) == null) {
+            joined.put(user.getEmail(), user);
+        }
+    }
+
+    public void userLeft(PresenceTracker.OnlineUser user) {
+        if (joined.remove(user.getEmail()) == null) {
+            left.put(user.getEmail(), user.getId());
+        }
+    }
+
+    public int clientCount() {
+        return broadcaster.clientCount();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("clients", broadcaster.clientCount());
+        m.put("droppedClients", broadcaster.droppedCount());
+        m.put("lastEventId", sequence.get());
+        return m;
+    }
+
+    private void dispatch() {
+        if (joined.isEmpty() && left.isEmpty()) {
+            return;
+        }
+        List<Map<String, Object>> joins = new ArrayList<>();
+        for (String email : joined.keySet()) {
+            PresenceTracker.OnlineUser u = joined.remove(email);
+            if (u != null) {
+                Map<String, Object> m = new HashMap<>();
+                m.put("id", u.getId());
+                m.put("username", u.getUsername());
+                m.put("email", u.getEmail());
+                m.put("role", u.getRole());
+                m.put("createdAt", u.getCreatedAt());
+                joins.add(m);
+            }
+        }
+        List<Long> leaves = new ArrayList<>();
+        for (String email : left.keySet()) {
+            Long id = left.remove(email);
+            if (id != null) {
+                leaves.add(id);
             }
         }
+        if (joins.isEmpty() && leaves.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> delta = new HashMap<>();
+        delta.put("joined", joins);
+        delta.put("left", leaves);
+        String id = String.valueOf(sequence.incrementAndGet());
+        broadcaster.broadcast(SseBroadcaster.Event.of(id, "active-users", delta));
     }
 }
@@ -0,0 +1,115 @@
+package com.example.sims.realtime;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.sims.service.OverviewStatistics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Pushes the admin overview counters to dashboards when they change. The dispatcher
+// compares the in-memory counters with the last published snapshot and broadcasts an
+// "overview" event only on a difference; each snapshot carries a version used as the
+// SSE event id, so a reconnecting client that is already current receives nothing.
+@Component
+public class OverviewNotifier {
+    private static final Logger log = LoggerFactory.getLogger(OverviewNotifier.class);
+
+    private final OverviewStatistics overviewStatistics;
+
+    @Value("${realtime.overview.debounce-ms:1000}")
+    private long debounceMillis;
+
+    @Value("${realtime.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${realtime.client-queue-capacity:32}")
+    private int clientQueueCapacity;
+
+    private SseBroadcaster broadcaster;
+    private ScheduledExecutorService dispatcher;
+
+    // guarded by this: the last published counters and their version
+    private Map<String, Long> published;
+    // starts from the clock so ids stay increasing across restarts
+    private long version = System.currentTimeMillis();
+
+    public OverviewNotifier(OverviewStatistics overviewStatistics) {
+        this.overviewStatistics = overviewStatistics;
+    }
+
+    @PostConstruct
+    void start() {
+        broadcaster = new SseBroadcaster(clientQueueCapacity);
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "overview-dispatcher");
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, debounceMillis, debounceMillis, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleAtFixedRate(() -> broadcaster.broadcast(SseBroadcaster.Event.heartbeat()),
+                heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.shutdownNow();
+        broadcaster.shutdown();
+    }
+
+    // A client resuming with the current version gets no snapshot, anyone else gets one first
+    public synchronized SseEmitter register(String lastEventId) {
+        Map<String, Object> current = current();
+        if (String.valueOf(version).equals(lastEventId)) {
+            return broadcaster.register();
+        }
+        return broadcaster.register(SseBroadcaster.Event.of(String.valueOf(version), "overview", current));
+    }
+
+    // Latest counters with their version, for the JSON endpoint and new subscribers
+    public synchronized Map<String, Object> current() {
+        if (published == null) {
+            published = overviewStatistics.snapshot();
+        }
+        Map<String, Object> m = new LinkedHashMap<>(published);
+        m.put("version", version);
+        return m;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("clients", broadcaster.clientCount());
+        m.put("droppedClients", broadcaster.droppedCount());
+        synchronized (this) {
+            m.put("version", version);
+        }
+        return m;
+    }
+
+    private void dispatch() {
+        try {
+            Map<String, Long> snapshot = overviewStatistics.snapshot();
+            synchronized (this) {
+                if (snapshot.equals(published)) {
+                    return;
+                }
+                published = snapshot;
+                version++;
+                broadcaster.broadcast(SseBroadcaster.Event.of(String.valueOf(version), "overview", current()));
+            }
+        } catch (RuntimeException e) {
+            // a failed recount must not cancel the scheduled task
+            log.warn("Overview dispatch failed", e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.sims.realtime;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.entity.UserEntity;
+
+// In-memory "who is online" registry, kept separate from users.active (which now only
+// means "account enabled"). Every authenticated request refreshes the caller's
+// last-seen time; users idle for longer than the timeout are expired by the sweep.
+// Listing online users costs O(online users) and never touches the database.
+// users.last_seen_at is written behind: the flush collects every user seen since the
+// previous flush, however many requests they made, and writes them in one JDBC batch.
+@Component
+public class PresenceTracker {
+    private static final Logger log = LoggerFactory.getLogger(PresenceTracker.class);
+
+    private static final String UPDATE_LAST_SEEN = "UPDATE users SET last_seen_at = ? WHERE email = ?";
+
+    private final IdentityCache identityCache;
+    private final ActiveUserNotifier notifier;
+    private final JdbcTemplate jdbc;
+
+    @Value("${presence.idle-timeout-seconds:300}")
+    private long idleTimeoutSeconds;
+
+    private final ConcurrentHashMap<String, OnlineUser> online = new ConcurrentHashMap<>();
+    // gone offline with a last-seen time the flush has not written yet
+    private final Queue<OnlineUser> departed = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public PresenceTracker(IdentityCache identityCache, ActiveUserNotifier notifier, JdbcTemplate jdbc) {
+        this.identityCache = identityCache;
+        this.notifier = notifier;
+        this.jdbc = jdbc;
+    }
+
+    // Called once per authenticated request; the common case is a map lookup and a volatile write
+    public void touch(String email) {
+        OnlineUser user = online.get(email);
+        if (user != null) {
+            user.lastSeen = System.currentTimeMillis();
+            return;
+        }
+        join(email);
+    }
+
+    public void join(String email) {
+        UserEntity user = identityCache.findUserByEmail(email).orElse(null);
+        if (user == null || !Boolean.TRUE.equals(user.getActive())) {
+            return;
+        }
+        OnlineUser entry = new OnlineUser(user.getId(), user.getEmail(), user.getUsername(), user.getRole(),
+                user.getCreatedAt());
+        if (online.putIfAbsent(email, entry) == null) {
+            notifier.userJoined(entry);
+        }
+    }
+
+    public void leave(String email) {
+        OnlineUser removed = online.remove(email);
+        if (removed != null) {
+            departed.add(removed);
+            notifier.userLeft(removed);
+        }
+    }
+
+    public boolean isOnline(String email) {
+        return online.containsKey(email);
+    }
+
+    public int onlineCount() {
+        return online.size();
+    }
+
+    // Most recently seen first
+    public List<OnlineUser> onlineUsers() {
+        List<OnlineUser> users = new ArrayList<>(online.values());
+        users.sort(Comparator.comparingLong(OnlineUser::getLastSeen).reversed());
+        return users;
+    }
+
+    @Scheduled(fixedDelayString = "${presence.sweep-interval-ms:5000}")
+    public void sweep() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutSeconds * 1000;
+        for (OnlineUser user : online.values()) {
+            if (user.lastSeen < cutoff && online.remove(user.email, user)) {
+                departed.add(user);
+                notifier.userLeft(user);
+            }
+        }
+    }
+
+    // Users who left go first, so a user who left and came back within one interval ends
+    // on the newer time. A failed batch is retried by the next flush.
+    @Scheduled(fixedDelayString = "${presence.flush-interval-ms:3000}")
+    public void flush() {
+        List<OnlineUser> changed = new ArrayList<>();
+        for (OnlineUser user; (user = departed.poll()) != null;) {
+            if (user.lastSeen > user.savedLastSeen) {
+                changed.add(user);
+            }
+        }
+        for (OnlineUser user : online.values()) {
+            if (user.lastSeen > user.savedLastSeen) {
+                changed.add(user);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        long[] seen = new long[changed.size()];
+        List<Object[]> rows = new ArrayList<>(changed.size());
+        for (int i = 0; i < seen.length; i++) {
+            OnlineUser user = changed.get(i);
+            seen[i] = user.lastSeen;
+            rows.add(new Object[] { LocalDateTime.ofInstant(Instant.ofEpochMilli(seen[i]), ZoneId.systemDefault()),
+                    user.email });
+        }
+        try {
+            jdbc.batchUpdate(UPDATE_LAST_SEEN, rows);
+        } catch (DataAccessException e) {
+            failedFlushes.incrementAndGet();
+            log.warn("Writing last-seen times of {} users failed, retrying with the next flush", rows.size(), e);
+            for (OnlineUser user : changed) {
+                if (online.get(user.email) != user) {
+                    departed.add(user);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < seen.length; i++) {
+            changed.get(i).savedLastSeen = seen[i];
+        }
+        flushes.incrementAndGet();
+        rowsWritten.addAndGet(seen.length);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("online", online.size());
+        m.put("flushes", flushes.get());
+        m.put("rowsWritten", rowsWritten.get());
+        m.put("failedFlushes", failedFlushes.get());
+        return m;
+    }
+
+    public static class OnlineUser {
+        private final Long id;
+        private final String email;
+        private final String username;
+        private final String role;
+        private final LocalDateTime createdAt;
+        private volatile long lastSeen = System.currentTimeMillis();
+        // the last-seen time already in users.last_seen_at; the flush alone reads and writes it
+        private long savedLastSeen;
+
+        OnlineUser(Long id, String email, String username, String role, LocalDateTime createdAt) {
+            this.id = id;
+            this.email = email;
+            this.username = username;
+            this.role = role;
+            this.createdAt = createdAt;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.sims.realtime;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Fan-out of server-sent events to many clients without blocking the publisher.
+// Each client has its own bounded queue drained on a virtual thread; a client whose
+// queue overflows (a stalled browser tab) is disconnected instead of slowing the others.
+public class SseBroadcaster {
+
+    public record Event(String id, String name, Object data, String comment) {
+
+        public static Event of(String id, String name, Object data) {
+            return new Event(id, name, data, null);
+        }
+
+        public static Event heartbeat() {
+            return new Event(null, null, null, "heartbeat");
+        }
+
+        SseEmitter.SseEventBuilder toBuilder() {
+            SseEmitter.SseEventBuilder builder = SseEmitter.event();
+            if (comment != null)
+                builder.comment(comment);
+            if (id != null)
+                builder.id(id);
+            if (name != null)
+                builder.name(name);
+            if (data != null)
+                builder.data(data);
+            return builder;
+        }
+    }
+
+    private final int queueCapacity;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder dropped = new LongAdder();
+
+    public SseBroadcaster(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public SseEmitter register() {
+        return register(null);
+    }
+
+    // Registers a client whose first event is {@code initial}, ahead of any broadcast
+    public SseEmitter register(Event initial) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError((e) -> clients.remove(client));
+        if (initial != null) {
+            client.enqueue(initial);
+        }
+        clients.add(client);
+        return emitter;
+    }
+
+    public void broadcast(Event event) {
+        for (Client client : clients) {
+            client.enqueue(event);
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public void shutdown() {
+        for (Client client : clients) {
+            client.close();
+        }
+        senders.shutdown();
+    }
+
+    private class Client {
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void enqueue(Event event) {
+            if (!queue.offer(event)) {
+                dropped.increment();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Event event;
+                while ((event = queue.poll()) != null) {
+                    emitter.send(event.toBuilder());
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // an event may have arrived between the last poll and clearing the flag
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        void close() {
+            clients.remove(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                /* already closed */ }
+        }
+    }
+}
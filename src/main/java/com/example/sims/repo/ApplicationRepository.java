@@ -1,21 +1,66 @@
 package com.example.sims.repo;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sims.dto.ApplicationListingRow;
+import com.example.sims.dto.ApplicationStatusRow;
+import com.example.sims.dto.StudentDashboardCounts;
 import com.example.sims.entity.ApplicationEntity;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ApplicationRepository extends JpaRepository<ApplicationEntity, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    // Projection shared by the listing queries: applications joined to their student, user,
+    // internship and company in one statement, no entities loaded
+    String LISTING_SELECT = "SELECT new com.example.sims.dto.ApplicationListingRow("
+            + "a.id, a.status, a.appliedAt, s.id, s.studentCode, COALESCE(s.fullName, u.username), s.major, "
+            + "u.email, i.id, i.title, i.location, c.id, c.companyName) "
+            + "FROM ApplicationEntity a JOIN a.student s JOIN s.user u JOIN a.internship i JOIN i.company c ";
+
     List<ApplicationEntity> findByStudentId(Long studentId);
 
     List<ApplicationEntity> findByInternshipId(Long internshipId);
 
+    long countByStatus(ApplicationEntity.ApplicationStatus status);
+
+    // Every application in id order for exports; must run inside a transaction and be closed.
+    // With useCursorFetch on the MySQL URL the driver pulls EXPORT_FETCH_SIZE rows at a time.
+    // Flat rows rather than entities: an entity graph would pull each company's user with a
+    // query of its own once the persistence context is cleared.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query(LISTING_SELECT + "ORDER BY a.id")
+    Stream<ApplicationListingRow> streamAllForExport();
+
+    // Keyset pages of listing rows, newest first
+    @Query(LISTING_SELECT + "ORDER BY a.appliedAt DESC, a.id DESC")
+    List<ApplicationListingRow> findListingPage(Pageable page);
+
+    @Query(LISTING_SELECT + "WHERE a.appliedAt < :appliedAt OR (a.appliedAt = :appliedAt AND a.id < :id) "
+            + "ORDER BY a.appliedAt DESC, a.id DESC")
+    List<ApplicationListingRow> findListingPageAfter(@Param("appliedAt") LocalDateTime appliedAt,
+            @Param("id") Long id, Pageable page);
+
+    @Query(LISTING_SELECT + "WHERE c.id = :companyId ORDER BY a.appliedAt DESC, a.id DESC")
+    List<ApplicationListingRow> findListingByCompanyId(@Param("companyId") Long companyId);
+
     @Query("SELECT a FROM ApplicationEntity a WHERE a.internship.company.id = :companyId ORDER BY a.appliedAt DESC")
     List<ApplicationEntity> findByCompanyId(@Param("companyId") Long companyId);
 
@@ -25,6 +70,45 @@ public interface ApplicationRepository extends JpaRepository<ApplicationEntity,
     @Query("SELECT COUNT(a) FROM ApplicationEntity a WHERE a.internship.company.id = :companyId AND a.status = 'PENDING'")
     Long countPendingByCompanyId(@Param("companyId") Long companyId);
 
+    // Compare-and-set of the status: 0 rows means it is no longer :from. Clears the
+    // persistence context, the loaded application is stale afterwards.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ApplicationEntity a SET a.status = :to WHERE a.id = :id AND a.status = :from")
+    int updateStatusIf(@Param("id") Long id, @Param("from") ApplicationEntity.ApplicationStatus from,
+            @Param("to") ApplicationEntity.ApplicationStatus to);
+
+    // Bulk variant of updateStatusIf; the count falls short of the ids when some moved on
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE ApplicationEntity a SET a.status = :to WHERE a.id IN :ids AND a.status = :from")
+    int updateStatusesIf(@Param("ids") Collection<Long> ids, @Param("from") ApplicationEntity.ApplicationStatus from,
+            @Param("to") ApplicationEntity.ApplicationStatus to);
+
+    // The given applications that belong to the company; ownership check and the state
+    // of each application in one statement
+    @Query("SELECT new com.example.sims.dto.ApplicationStatusRow(a.id, a.status, a.student.id, i.id) "
+            + "FROM ApplicationEntity a JOIN a.internship i WHERE a.id IN :ids AND i.company.id = :companyId")
+    List<ApplicationStatusRow> findStatusRowsOfCompany(@Param("ids") Collection<Long> ids,
+            @Param("companyId") Long companyId);
+
+    // Internships holding a seat for the student behind this user account
+    @Query("SELECT a.internship.id FROM ApplicationEntity a "
+            + "WHERE a.student.user.id = :userId AND a.status = 'APPROVED'")
+    List<Long> findApprovedInternshipIdsByStudentUserId(@Param("userId") Long userId);
+
+    // All dashboard cards of one student in a single round trip
+    @Query(value = "SELECT "
+            + "(SELECT COUNT(*) FROM internships i WHERE i.end_date IS NULL OR i.end_date >= :today) AS openInternships, "
+            + "COUNT(a.id) AS applied, "
+            + "COALESCE(SUM(a.status = 'PENDING'), 0) AS pending, "
+            + "COALESCE(SUM(a.status = 'APPROVED'), 0) AS approved, "
+            + "(SELECT COUNT(*) FROM internships i WHERE (i.end_date IS NULL OR i.end_date >= :today) "
+            + "AND NOT EXISTS (SELECT 1 FROM applications x WHERE x.student_id = :studentId "
+            + "AND x.internship_id = i.id)) AS available "
+            + "FROM applications a WHERE a.student_id = :studentId", nativeQuery = true)
+    StudentDashboardCounts countDashboard(@Param("studentId") Long studentId, @Param("today") LocalDate today);
+
     @Query("SELECT COUNT(a) FROM ApplicationEntity a WHERE a.student.id = :studentId")
     Long countByStudentId(@Param("studentId") Long studentId);
 
@@ -34,6 +118,31 @@ public interface ApplicationRepository extends JpaRepository<ApplicationEntity,
     @Query("SELECT a FROM ApplicationEntity a WHERE a.student.id = :studentId AND a.internship.id = :internshipId")
     Optional<ApplicationEntity> findByStudentIdAndInternshipId(@Param("studentId") Long studentId,
             @Param("internshipId") Long internshipId);
+
+    @Query("SELECT a FROM ApplicationEntity a WHERE a.student.id = :studentId AND a.idempotencyKey = :key")
+    Optional<ApplicationEntity> findByStudentIdAndIdempotencyKey(@Param("studentId") Long studentId,
+            @Param("key") String key);
+
+    // Inserts a pending application unless the student already applied to the internship or
+    // already used the key; the unique keys decide, no prior SELECT. Selecting from internships
+    // makes a missing internship insert nothing instead of failing the foreign key. Only a
+    // duplicate key is tolerated, any other error still fails the statement. The driver counts
+    // a duplicate as a found row, so the update clause resets LAST_INSERT_ID() to 0 instead:
+    // afterwards lastInsertId() is the new id when a row was inserted and 0 on a duplicate.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO applications "
+            + "(student_id, internship_id, status, applied_at, cover_letter, idempotency_key) "
+            + "SELECT :studentId, i.id, 'PENDING', :appliedAt, :coverLetter, :key FROM internships i "
+            + "WHERE i.id = :internshipId "
+            + "ON DUPLICATE KEY UPDATE applications.id = applications.id + LAST_INSERT_ID(0)", nativeQuery = true)
+    void insertIfAbsent(@Param("studentId") Long studentId, @Param("internshipId") Long internshipId,
+            @Param("coverLetter") String coverLetter, @Param("key") String key,
+            @Param("appliedAt") LocalDateTime appliedAt);
+
+    // Per connection, so only meaningful in the transaction that ran the insert
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long lastInsertId();
     
 
     @Query("SELECT a FROM ApplicationEntity a " +
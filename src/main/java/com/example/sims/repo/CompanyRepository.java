@@ -1,8 +1,12 @@
 package com.example.sims.repo;
 
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.sims.entity.CompanyEntity;
@@ -10,4 +14,11 @@ import com.example.sims.entity.CompanyEntity;
 @Repository
 public interface CompanyRepository extends JpaRepository<CompanyEntity, Long> {
     Optional<CompanyEntity> findByUserId(Long userId);
+
+    // Keyset pages by id, companies have no creation timestamp
+    @Query("SELECT c FROM CompanyEntity c JOIN FETCH c.user ORDER BY c.id")
+    List<CompanyEntity> findPage(Pageable page);
+
+    @Query("SELECT c FROM CompanyEntity c JOIN FETCH c.user WHERE c.id > :id ORDER BY c.id")
+    List<CompanyEntity> findPageAfter(@Param("id") Long id, Pageable page);
 }
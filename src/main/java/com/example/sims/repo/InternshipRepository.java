@@ -1,9 +1,17 @@
 package com.example.sims.repo;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.sims.entity.InternshipEntity;
 
@@ -11,4 +19,50 @@ import com.example.sims.entity.InternshipEntity;
 public interface InternshipRepository extends JpaRepository<InternshipEntity, Long> {
     List<InternshipEntity> findByCompanyId(Long companyId);
     List<InternshipEntity> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
+
+    // Whole catalog with the company of each internship in one query
+    @Query("SELECT i FROM InternshipEntity i JOIN FETCH i.company ORDER BY i.id")
+    List<InternshipEntity> findAllWithCompany();
+
+    @Query("SELECT i FROM InternshipEntity i JOIN FETCH i.company WHERE i.id = :id")
+    Optional<InternshipEntity> findByIdWithCompany(@Param("id") Long id);
+
+    // Keyset pages, newest first
+    @Query("SELECT i FROM InternshipEntity i JOIN FETCH i.company ORDER BY i.createdAt DESC, i.id DESC")
+    List<InternshipEntity> findPage(Pageable page);
+
+    @Query("SELECT i FROM InternshipEntity i JOIN FETCH i.company "
+            + "WHERE i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id) "
+            + "ORDER BY i.createdAt DESC, i.id DESC")
+    List<InternshipEntity> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Pageable page);
+
+    // Seat accounting as conditional single-row updates: 0 rows means the internship is full
+    // (or gone); no row is read first, so concurrent approvals never overwrite each other
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE internships SET seats_taken = seats_taken + 1 "
+            + "WHERE id = :id AND seats_taken < seats", nativeQuery = true)
+    int takeSeat(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE internships SET seats_taken = seats_taken - 1 "
+            + "WHERE id = :id AND seats_taken > 0", nativeQuery = true)
+    int releaseSeat(@Param("id") Long id);
+
+    // Changes the number of seats unless approved applications already hold more: 0 rows
+    // means they do (or the internship is gone)
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE internships SET seats = :seats WHERE id = :id AND seats_taken <= :seats",
+            nativeQuery = true)
+    int resizeSeats(@Param("id") Long id, @Param("seats") int seats);
+
+    // One seat back on each internship, for approved applications removed together
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE internships SET seats_taken = seats_taken - 1 "
+            + "WHERE id IN (:ids) AND seats_taken > 0", nativeQuery = true)
+    int releaseSeats(@Param("ids") Collection<Long> ids);
 }
@@ -1,13 +1,59 @@
 package com.example.sims.repo;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.sims.entity.UserEntity;
 
+import jakarta.persistence.QueryHint;
+
 public interface UserRepository extends JpaRepository<UserEntity, Long>{
     Optional<UserEntity> findByUsername(String username);
     Optional<UserEntity> findByEmail(String email);
-    
+
+    long countByRoleIn(Collection<String> roles);
+
+    long countByRoleInAndActiveTrue(Collection<String> roles);
+
+    // Every user in id order for exports; must run inside a transaction and be closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + ApplicationRepository.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT u FROM UserEntity u ORDER BY u.id")
+    Stream<UserEntity> streamAllForExport();
+
+    // Keyset pages, newest first; pass PageRequest.of(0, size) to bound them
+    @Query("SELECT u FROM UserEntity u ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserEntity> findPage(Pageable page);
+
+    @Query("SELECT u FROM UserEntity u WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id) "
+            + "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserEntity> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable page);
+
+    @Query("SELECT u FROM UserEntity u WHERE u.role IN :roles ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserEntity> findPageByRoleIn(@Param("roles") Collection<String> roles, Pageable page);
+
+    @Query("SELECT u FROM UserEntity u WHERE u.role IN :roles "
+            + "AND (u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id)) "
+            + "ORDER BY u.createdAt DESC, u.id DESC")
+    List<UserEntity> findPageByRoleInAfter(@Param("roles") Collection<String> roles,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable page);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
+
 }
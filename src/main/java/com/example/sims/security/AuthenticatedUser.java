@@ -0,0 +1,18 @@
+package com.example.sims.security;
+
+// Identity of the caller as resolved for controller methods.
+// profileId is the student profile id for students and the company id for companies.
+public record AuthenticatedUser(Long userId, String email, String role, Long profileId) {
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+
+    public boolean isCompany() {
+        return "COMPANY".equals(role);
+    }
+
+    public boolean isStudent() {
+        return "USER".equals(role) || "STUDENT".equals(role);
+    }
+}
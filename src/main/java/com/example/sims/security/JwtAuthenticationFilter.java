@@ -12,6 +12,8 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.sims.realtime.PresenceTracker;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -20,10 +22,14 @@ import jakarta.servlet.http.HttpServletResponse;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    public static final String PRINCIPAL_ATTRIBUTE = "jwtPrincipal";
+
     private final JwtTokenProvider tokenProvider;
+    private final PresenceTracker presenceTracker;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, PresenceTracker presenceTracker) {
         this.tokenProvider = tokenProvider;
+        this.presenceTracker = presenceTracker;
     }
 
     @Override
@@ -40,23 +46,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
-                String role = tokenProvider.getRoleFromToken(jwt);
-                
-                // Set both the attribute and create proper Spring Security authentication
-                request.setAttribute("userEmail", email);
-                
-                // Build authorities from role
-                Collection<GrantedAuthority> authorities = new ArrayList<>();
-                if (role != null) {
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
-                }
-                
-                // Create authentication token with authorities
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(email, null, authorities);
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                tokenProvider.verify(jwt).ifPresent(principal -> authenticate(request, principal));
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -65,6 +56,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticate(HttpServletRequest request, JwtPrincipal principal) {
+        String email = principal.email();
+        String role = principal.role();
+
+        // Set both the attribute and create proper Spring Security authentication
+        request.setAttribute("userEmail", email);
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+
+        // Build authorities from role
+        Collection<GrantedAuthority> authorities = new ArrayList<>();
+        if (role != null) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
+        }
+
+        // Create authentication token with authorities
+        UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(email, null, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        // every authenticated request counts as a presence heartbeat
+        presenceTracker.touch(email);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         // First, try to get token from Authorization header
         String bearerToken = request.getHeader("Authorization");
@@ -0,0 +1,8 @@
+package com.example.sims.security;
+
+import java.time.Instant;
+
+// Claims of a token whose signature has already been verified.
+// userId and profileId are null for tokens issued before the ids were embedded.
+public record JwtPrincipal(String email, String role, Long userId, Long profileId, Instant expiresAt) {
+}
@@ -1,14 +1,25 @@
 package com.example.sims.security;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.example.sims.cache.ExpiringCache;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 import javax.crypto.SecretKey;
 
@@ -20,51 +31,84 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration:86400000}")
     private long jwtExpiration;
 
-    public String generateToken(String email, String role) {
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey key;
+    private JwtParser parser;
+    // verified tokens keyed by their SHA-256 digest, each entry expires with its token
+    private ExpiringCache<String, JwtPrincipal> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(key).build();
+        verifiedTokens = new ExpiringCache<>(cacheMaxSize);
+    }
+
+    public String generateToken(String email, String role, Long userId, Long profileId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
                 .subject(email)
                 .claim("role", role)
+                .claim("uid", userId)
+                .claim("pid", profileId)
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key)
                 .compact();
     }
 
+    // Verifies the signature once and returns the claims; repeated calls with the
+    // same token are answered from the cache until the token expires.
+    public Optional<JwtPrincipal> verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+        String digest = digest(token);
+        JwtPrincipal cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            Date expiration = claims.getExpiration();
+            JwtPrincipal principal = new JwtPrincipal(claims.getSubject(), claims.get("role", String.class),
+                    claims.get("uid", Long.class), claims.get("pid", Long.class),
+                    expiration != null ? expiration.toInstant() : null);
+            if (expiration != null) {
+                verifiedTokens.put(digest, principal, expiration.getTime());
+            }
+            return Optional.of(principal);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     public String getEmailFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getSubject();
+        return verify(token).map(JwtPrincipal::email).orElse(null);
     }
 
     public String getRoleFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("role", String.class);
+        return verify(token).map(JwtPrincipal::role).orElse(null);
     }
 
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    public Map<String, Object> cacheStats() {
+        return verifiedTokens.stats();
+    }
+
+    private static String digest(String token) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
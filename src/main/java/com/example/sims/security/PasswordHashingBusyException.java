@@ -0,0 +1,15 @@
+package com.example.sims.security;
+
+// Thrown when the password hashing pool cannot take more work; maps to HTTP 429.
+public class PasswordHashingBusyException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Server is busy, please try again in " + retryAfterSeconds + " seconds");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.sims.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Runs BCrypt on a pool sized to the CPU count so hashing storms cannot occupy the
+// servlet threads. The queue is bounded; when it is full callers fail fast with
+// PasswordHashingBusyException instead of waiting, and a hash not done within the
+// timeout fails the same way.
+//
+// Login and register use the async variants and release the servlet thread while the
+// hash waits in the queue; the blocking variants tie the caller up for the queue wait
+// plus the hash and are meant for rare paths only. Futures complete on virtual threads,
+// never on the hashing threads, so dependent stages may block on the database.
+@Component
+public class PasswordHashingExecutor {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService completions = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor timeouts;
+    private final int bcryptStrength;
+    private final long timeoutMillis;
+    private final long retryAfterSeconds;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+            @Value("${security.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${security.password-hashing.queue-capacity:200}") int queueCapacity,
+            @Value("${security.password-hashing.timeout-ms:10000}") long timeoutMillis,
+            @Value("${security.password-hashing.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.bcryptStrength = bcryptStrength;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.timeouts = CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, completions);
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(matchesAsync(rawPassword, encodedPassword));
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(encodeAsync(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matchesAsync(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    // Batch work that keeps several hashes in flight bounds how many, so interactive
+    // logins still find room in the queue
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // True when the stored hash was produced with a different BCrypt cost than configured
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith("$")) {
+            return false;
+        }
+        String[] parts = encodedPassword.split("\\$");
+        if (parts.length < 3) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(parts[2]) != bcryptStrength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long count = hashes.sum();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("poolSize", executor.getPoolSize());
+        m.put("activeThreads", executor.getActiveCount());
+        m.put("queueDepth", executor.getQueue().size());
+        m.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        m.put("completed", count);
+        m.put("rejected", rejected.sum());
+        m.put("avgHashMillis", count == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / count);
+        m.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return m;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        completions.shutdown();
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> hashing;
+        try {
+            hashing = executor.submit(() -> {
+                if (result.isDone()) {
+                    // timed out while queued
+                    return;
+                }
+                long start = System.nanoTime();
+                try {
+                    T value = task.call();
+                    completions.execute(() -> result.complete(value));
+                } catch (Exception e) {
+                    completions.execute(() -> result.completeExceptionally(e));
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulateAndGet(elapsed, Math::max);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+        timeouts.execute(() -> {
+            if (result.completeExceptionally(new PasswordHashingBusyException(retryAfterSeconds))) {
+                hashing.cancel(true);
+                rejected.increment();
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.sims.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sims.security.PasswordHashingBusyException;
+import com.example.sims.security.PasswordHashingExecutor;
+
+// Bulk onboarding of students and companies from a CSV upload. The file is read line by
+// line and handled in chunks:
+// - rows are validated and checked against the emails and usernames loaded once up front
+//   (and against earlier rows of the file);
+// - passwords are hashed in parallel on the shared hashing pool, with a bounded number in
+//   flight so interactive logins keep their place in the queue;
+// - each chunk is written in one transaction: a JDBC batch of users, one query for their
+//   ids, a JDBC batch of profiles. A chunk the database refuses (someone registered the
+//   same email meanwhile) is retried row by row.
+// Rows that fail are skipped and reported by line number.
+//
+// Header, any order, case-insensitive: email, username, password, role (USER, STUDENT or
+// COMPANY; blank means USER), optional full_name (student or company name, defaults to
+// the username) and major.
+@Service
+public class AccountImportService {
+    private static final Logger log = LoggerFactory.getLogger(AccountImportService.class);
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Set<String> ROLES = Set.of("USER", "STUDENT", "COMPANY");
+    private static final List<String> REQUIRED_COLUMNS = List.of("email", "username", "password", "role");
+    // BCrypt ignores anything longer
+    private static final int MAX_PASSWORD_BYTES = 72;
+    private static final long BUSY_BACKOFF_MILLIS = 50;
+    private static final int BUSY_RETRIES = 200;
+
+    private static final String INSERT_USER = "INSERT INTO users (email, username, password, role, active, created_at) "
+            + "VALUES (?, ?, ?, ?, TRUE, ?)";
+    private static final String INSERT_STUDENT = "INSERT INTO student_profiles (user_id, student_code, full_name, major) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_COMPANY = "INSERT INTO companies (user_id, company_name) VALUES (?, ?)";
+
+    public record RowError(long line, String email, String message) {
+    }
+
+    public record Report(int imported, int failed, List<RowError> errors) {
+    }
+
+    private record Row(long line, String email, String username, String password, String role, String name,
+            String major) {
+
+        boolean company() {
+            return "COMPANY".equals(role);
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final PasswordHashingExecutor passwordHasher;
+    private final OverviewStatistics overviewStatistics;
+    private final ChangeVersions changeVersions;
+    private final int batchSize;
+    private final int hashConcurrency;
+
+    public AccountImportService(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            PasswordHashingExecutor passwordHasher, OverviewStatistics overviewStatistics,
+            ChangeVersions changeVersions,
+            @Value("${accounts.import.batch-size:500}") int batchSize,
+            @Value("${accounts.import.hash-concurrency:0}") int hashConcurrency) {
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.passwordHasher = passwordHasher;
+        this.overviewStatistics = overviewStatistics;
+        this.changeVersions = changeVersions;
+        this.batchSize = Math.max(1, batchSize);
+        this.hashConcurrency = hashConcurrency > 0 ? hashConcurrency : Runtime.getRuntime().availableProcessors();
+    }
+
+    // Throws IllegalArgumentException when the header lacks a required column
+    public Report importCsv(InputStream csv) throws IOException {
+        long start = System.nanoTime();
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        jdbc.query("SELECT email, username FROM users", rs -> {
+            emails.add(key(rs.getString(1)));
+            usernames.add(key(rs.getString(2)));
+        });
+
+        Progress progress = new Progress();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Map<String, Integer> columns = columns(header);
+        List<Row> chunk = new ArrayList<>(batchSize);
+        long line = 1;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            Row row;
+            try {
+                row = row(line, parseLine(text), columns, emails, usernames);
+            } catch (IllegalArgumentException e) {
+                progress.fail(line, null, e.getMessage());
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                importChunk(chunk, progress);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+        log.info("Imported {} accounts, {} rows failed, in {} ms", progress.imported, progress.failed,
+                (System.nanoTime() - start) / 1_000_000);
+        return new Report(progress.imported, progress.failed, progress.errors);
+    }
+
+    private void importChunk(List<Row> rows, Progress progress) {
+        String[] hashes = hashAll(rows);
+        try {
+            write(rows, hashes);
+            progress.imported += rows.size();
+        } catch (DataIntegrityViolationException e) {
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                try {
+                    write(List.of(row), new String[] { hashes[i] });
+                    progress.imported++;
+                } catch (DataIntegrityViolationException rowFailure) {
+                    progress.fail(row.line(), row.email(), "Email or username already exists");
+                }
+            }
+        }
+    }
+
+    // Keeps at most hashConcurrency hashes in flight, collecting them in row order
+    private String[] hashAll(List<Row> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        String[] hashes = new String[rows.size()];
+        int done = 0;
+        for (Row row : rows) {
+            if (futures.size() - done >= hashConcurrency) {
+                hashes[done] = await(futures.get(done), rows.get(done));
+                done++;
+            }
+            futures.add(submitHash(row.password()));
+        }
+        for (; done < futures.size(); done++) {
+            hashes[done] = await(futures.get(done), rows.get(done));
+        }
+        return hashes;
+    }
+
+    // The pool is shared with logins; when it is saturated, back off instead of failing rows
+    private Future<String> submitHash(String password) {
+        for (int attempt = 0;; attempt++) {
+            try {
+                return passwordHasher.encodeAsync(password);
+            } catch (PasswordHashingBusyException e) {
+                if (attempt == BUSY_RETRIES) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(BUSY_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while importing accounts", interrupted);
+                }
+            }
+        }
+    }
+
+    // A hash that timed out in the queue behind logins is submitted again
+    private String await(Future<String> hash, Row row) {
+        for (int attempt = 0;; attempt++) {
+            try {
+                return hash.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while importing accounts", e);
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof PasswordHashingBusyException) || attempt == BUSY_RETRIES) {
+                    throw new IllegalStateException("Password hashing failed", e.getCause());
+                }
+                hash = submitHash(row.password());
+            }
+        }
+    }
+
+    private void write(List<Row> rows, String[] hashes) {
+        transactions.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Object[]> users = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                Row row = rows.get(i);
+                users.add(new Object[] { row.email(), row.username(), hashes[i], row.role(), now });
+            }
+            jdbc.batchUpdate(INSERT_USER, users);
+
+            Map<String, Long> ids = new HashMap<>();
+            jdbc.query("SELECT id, email FROM users WHERE email IN ("
+                    + String.join(", ", Collections.nCopies(rows.size(), "?")) + ")",
+                    rs -> {
+                        ids.put(key(rs.getString(2)), rs.getLong(1));
+                    },
+                    rows.stream().map(Row::email).toArray());
+
+            List<Object[]> students = new ArrayList<>();
+            List<Object[]> companies = new ArrayList<>();
+            for (Row row : rows) {
+                Long userId = ids.get(key(row.email()));
+                if (row.company()) {
+                    companies.add(new Object[] { userId, row.name() });
+                } else {
+                    // same code as AuthService.register
+                    students.add(new Object[] { userId, "STU-" + String.format("%05d", userId), row.name(),
+                            row.major() });
+                }
+            }
+            if (!students.isEmpty()) {
+                jdbc.batchUpdate(INSERT_STUDENT, students);
+            }
+            if (!companies.isEmpty()) {
+                jdbc.batchUpdate(INSERT_COMPANY, companies);
+            }
+
+            for (Row row : rows) {
+                overviewStatistics.userAdded(row.role(), true);
+                if (row.company()) {
+                    overviewStatistics.companyAdded();
+                }
+            }
+            if (!students.isEmpty()) {
+                changeVersions.changed(ChangeVersions.STUDENTS);
+            }
+            if (!companies.isEmpty()) {
+                changeVersions.changed(ChangeVersions.COMPANIES);
+            }
+        });
+    }
+
+    // Validates one line and claims its email and username
+    private static Row row(long line, List<String> fields, Map<String, Integer> columns, Set<String> emails,
+            Set<String> usernames) {
+        String email = field(fields, columns, "email");
+        String username = field(fields, columns, "username");
+        String password = fields.size() > columns.get("password") ? fields.get(columns.get("password")) : "";
+        String role = field(fields, columns, "role").toUpperCase(Locale.ROOT);
+        String name = field(fields, columns, "full_name");
+        String major = field(fields, columns, "major");
+
+        if (email.isEmpty() || email.length() > 100 || email.indexOf('@') < 1) {
+            throw new IllegalArgumentException("Invalid email");
+        }
+        if (username.isEmpty() || username.length() > 100) {
+            throw new IllegalArgumentException("Username is required and at most 100 characters");
+        }
+        if (password.isEmpty()) {
+            throw new IllegalArgumentException("Password is required");
+        }
+        if (password.getBytes(StandardCharsets.UTF_8).length > MAX_PASSWORD_BYTES) {
+            throw new IllegalArgumentException("Password is longer than " + MAX_PASSWORD_BYTES + " bytes");
+        }
+        if (role.isEmpty()) {
+            role = "USER";
+        }
+        if (!ROLES.contains(role)) {
+            throw new IllegalArgumentException("Role must be USER, STUDENT or COMPANY");
+        }
+        if (name.isEmpty()) {
+            name = username;
+        }
+        if (name.length() > ("COMPANY".equals(role) ? 150 : 100)) {
+            throw new IllegalArgumentException("Name is too long");
+        }
+        if (major.length() > 100) {
+            throw new IllegalArgumentException("Major is too long");
+        }
+        if (emails.contains(key(email))) {
+            throw new IllegalArgumentException("Email already exists");
+        }
+        if (usernames.contains(key(username))) {
+            throw new IllegalArgumentException("Username already exists");
+        }
+        emails.add(key(email));
+        usernames.add(key(username));
+        return new Row(line, email, username, password, role, name, major.isEmpty() ? null : major);
+    }
+
+    private static Map<String, Integer> columns(String header) {
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.containsKey(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    // One line of RFC 4180 CSV; quoted fields may contain commas and doubled quotes, not newlines
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    // MySQL compares emails and usernames case-insensitively
+    private static String key(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Progress {
+        int imported;
+        int failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void fail(long line, String email, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, email, message));
+            }
+        }
+    }
+}
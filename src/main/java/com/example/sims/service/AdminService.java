@@ -1,13 +1,22 @@
 package com.example.sims.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.dto.ApplicationListingRow;
 import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.entity.CompanyEntity;
 import com.example.sims.entity.InternshipEntity;
 import com.example.sims.entity.UserEntity;
+import com.example.sims.realtime.PresenceTracker;
 import com.example.sims.repo.ApplicationRepository;
 import com.example.sims.repo.InternshipRepository;
 import com.example.sims.repo.UserRepository;
@@ -19,37 +28,127 @@ public class AdminService {
     private final InternshipRepository internshipRepository;
     private final ApplicationRepository applicationRepository;
     private final com.example.sims.repo.CompanyRepository companyRepository;
+    private final IdentityCache identityCache;
+    private final PresenceTracker presenceTracker;
+    private final OverviewStatistics overviewStatistics;
+    private final ApplicationEventPublisher events;
+    private final ChangeVersions changeVersions;
+    private final SeatAllocator seatAllocator;
 
     public AdminService(UserRepository userRepository,
             InternshipRepository internshipRepository,
             ApplicationRepository applicationRepository,
-            CompanyRepository companyRepository) {
+            CompanyRepository companyRepository,
+            IdentityCache identityCache,
+            PresenceTracker presenceTracker,
+            OverviewStatistics overviewStatistics,
+            ApplicationEventPublisher events,
+            ChangeVersions changeVersions,
+            SeatAllocator seatAllocator) {
         this.userRepository = userRepository;
         this.internshipRepository = internshipRepository;
         this.applicationRepository = applicationRepository;
         this.companyRepository = companyRepository;
+        this.identityCache = identityCache;
+        this.presenceTracker = presenceTracker;
+        this.overviewStatistics = overviewStatistics;
+        this.events = events;
+        this.changeVersions = changeVersions;
+        this.seatAllocator = seatAllocator;
     }
 
+    @Transactional(readOnly = true)
     public List<UserEntity> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // Keyset page of users, newest first, optionally restricted to some roles
+    @Transactional(readOnly = true)
+    public KeysetPage<UserEntity> getUsersPage(Collection<String> roles, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = KeysetPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<UserEntity> rows;
+        if (roles == null || roles.isEmpty()) {
+            rows = after == null ? userRepository.findPage(page)
+                    : userRepository.findPageAfter(after.at(), after.id(), page);
+        } else {
+            rows = after == null ? userRepository.findPageByRoleIn(roles, page)
+                    : userRepository.findPageByRoleInAfter(roles, after.at(), after.id(), page);
+        }
+        return KeysetPage.of(rows, size, u -> new PageCursor(u.getCreatedAt(), u.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<InternshipEntity> getInternshipsPage(String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = KeysetPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<InternshipEntity> rows = after == null ? internshipRepository.findPage(page)
+                : internshipRepository.findPageAfter(after.at(), after.id(), page);
+        return KeysetPage.of(rows, size, i -> new PageCursor(i.getCreatedAt(), i.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<ApplicationListingRow> getApplicationsPage(String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = KeysetPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<ApplicationListingRow> rows = after == null ? applicationRepository.findListingPage(page)
+                : applicationRepository.findListingPageAfter(after.at(), after.id(), page);
+        return KeysetPage.of(rows, size, a -> new PageCursor(a.appliedAt(), a.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public KeysetPage<CompanyEntity> getCompaniesPage(String cursor, Integer limit) {
+        PageCursor after = PageCursor.decode(cursor);
+        int size = KeysetPage.clampLimit(limit);
+        Pageable page = PageRequest.of(0, size + 1);
+        List<CompanyEntity> rows = after == null ? companyRepository.findPage(page)
+                : companyRepository.findPageAfter(after.id(), page);
+        return KeysetPage.of(rows, size, c -> new PageCursor(null, c.getId()));
+    }
+
+    @Transactional(readOnly = true)
     public Optional<UserEntity> getUserById(Long id) {
         return userRepository.findById(id);
     }
 
     public UserEntity setUserActive(Long id, boolean active) {
         UserEntity user = userRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        Boolean wasActive = user.getActive();
         user.setActive(active);
-        return userRepository.save(user);
+        try {
+            UserEntity saved = userRepository.save(user);
+            overviewStatistics.userChanged(saved.getRole(), wasActive, saved.getRole(), saved.getActive());
+            return saved;
+        } finally {
+            identityCache.evictUser(id);
+            if (!active)
+                presenceTracker.leave(user.getEmail());
+        }
     }
 
+    @Transactional
     public void deleteUser(Long id) {
+        // a deleted student's approved applications give their seats back
+        List<Long> seatsHeld = applicationRepository.findApprovedInternshipIdsByStudentUserId(id);
+        if (!seatsHeld.isEmpty()) {
+            internshipRepository.releaseSeats(seatsHeld);
+        }
         userRepository.deleteById(id);
+        // the profile, company, internships and applications go with the user
+        overviewStatistics.cascadeDeleted();
+        events.publishEvent(new InternshipChangedEvent(null));
+        changeVersions.changedAll();
+        // dropped again after the commit, so a lookup during the transaction cannot re-cache the user
+        identityCache.evictUser(id);
     }
 
     public UserEntity updateUser(Long id, String username, String email, String role, Boolean active) {
         UserEntity user = userRepository.findById(id).orElseThrow(() -> new IllegalArgumentException("User not found"));
+        String oldRole = user.getRole();
+        Boolean wasActive = user.getActive();
         if (username != null)
             user.setUsername(username);
         if (email != null)
@@ -58,57 +157,82 @@ public class AdminService {
             user.setRole(role);
         if (active != null)
             user.setActive(active);
-        return userRepository.save(user);
+        try {
+            UserEntity saved = userRepository.save(user);
+            overviewStatistics.userChanged(oldRole, wasActive, saved.getRole(), saved.getActive());
+            // usernames and emails appear in the company application listings
+            changeVersions.changed(ChangeVersions.STUDENTS);
+            return saved;
+        } finally {
+            identityCache.evictUser(id);
+            if (Boolean.FALSE.equals(active))
+                presenceTracker.leave(user.getEmail());
+        }
     }
 
     public long getTotalStudents() {
-        return userRepository.findAll().stream().filter(u -> "STUDENT".equals(u.getRole())).count();
+        return overviewStatistics.getStudents();
     }
 
     public long getActiveStudentsCount() {
-        return userRepository.findAll().stream()
-                .filter(u -> "STUDENT".equals(u.getRole()) && Boolean.TRUE.equals(u.getActive()))
-                .count();
+        return overviewStatistics.getActiveStudents();
     }
 
     public long getTotalInternships() {
-        return internshipRepository.count();
+        return overviewStatistics.getInternships();
     }
 
     public long getTotalCompanies() {
-        try {
-            return companyRepository != null ? companyRepository.count() : 0L;
-        } catch (Exception ex) {
-            return 0L;
-        }
+        return overviewStatistics.getCompanies();
     }
 
     public long getTotalApplications() {
-        return applicationRepository.count();
+        return overviewStatistics.getApplications();
     }
 
     public long getPendingApplications() {
-        return applicationRepository.findAll().stream()
-                .filter(a -> a.getStatus() == ApplicationEntity.ApplicationStatus.PENDING)
-                .count();
+        return overviewStatistics.getPendingApplications();
+    }
+
+    public java.util.Map<String, Object> getOverviewCounterStats() {
+        return overviewStatistics.stats();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<InternshipEntity> getInternshipById(Long id) {
+        return internshipRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<InternshipEntity> getAllInternships() {
         return internshipRepository.findAll();
     }
 
     public InternshipEntity createInternship(InternshipEntity internship) {
-        return internshipRepository.save(internship);
+        SeatAllocator.checkSeats(internship.getSeats());
+        InternshipEntity saved = internshipRepository.save(internship);
+        overviewStatistics.internshipAdded();
+        events.publishEvent(new InternshipChangedEvent(saved.getId()));
+        return saved;
     }
 
+    // Throws SeatsInUseException when fewer seats than are taken would be left
+    @Transactional
     public InternshipEntity updateInternship(InternshipEntity internship) {
-        return internshipRepository.save(internship);
+        seatAllocator.resize(internship.getId(), internship.getSeats());
+        InternshipEntity saved = internshipRepository.save(internship);
+        events.publishEvent(new InternshipChangedEvent(saved.getId()));
+        return saved;
     }
 
     public void deleteInternship(Long id) {
         internshipRepository.deleteById(id);
+        // applications to the internship are removed by the foreign key cascade
+        overviewStatistics.cascadeDeleted();
+        events.publishEvent(new InternshipChangedEvent(id));
     }
 
+    @Transactional(readOnly = true)
     public List<ApplicationEntity> getAllApplications() {
         return applicationRepository.findAll();
     }
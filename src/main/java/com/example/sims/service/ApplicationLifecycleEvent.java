@@ -0,0 +1,41 @@
+package com.example.sims.service;
+
+import java.time.LocalDateTime;
+
+import com.example.sims.dto.ApplicationStatusRow;
+import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+// A committed change of an application, as stored in the outbox and handed to
+// ApplicationLifecycleSubscriber beans. id is the outbox row, null until appended;
+// previousStatus is null for a submission.
+public record ApplicationLifecycleEvent(Long id, Type type, Long applicationId, Long studentId, Long internshipId,
+        ApplicationStatus previousStatus, ApplicationStatus status, LocalDateTime occurredAt) {
+
+    public enum Type {
+        SUBMITTED, STATUS_CHANGED
+    }
+
+    public static ApplicationLifecycleEvent submitted(ApplicationEntity application) {
+        return new ApplicationLifecycleEvent(null, Type.SUBMITTED, application.getId(),
+                application.getStudent().getId(), application.getInternship().getId(), null,
+                application.getStatus(), LocalDateTime.now());
+    }
+
+    public static ApplicationLifecycleEvent statusChanged(ApplicationEntity application, ApplicationStatus previous) {
+        return new ApplicationLifecycleEvent(null, Type.STATUS_CHANGED, application.getId(),
+                application.getStudent().getId(), application.getInternship().getId(), previous,
+                application.getStatus(), LocalDateTime.now());
+    }
+
+    public static ApplicationLifecycleEvent statusChanged(ApplicationStatusRow row, ApplicationStatus status) {
+        return new ApplicationLifecycleEvent(null, Type.STATUS_CHANGED, row.id(), row.studentId(),
+                row.internshipId(), row.status(), status, LocalDateTime.now());
+    }
+
+    // Entering or leaving APPROVED moves the internship's free seats
+    public boolean seatsChanged() {
+        return type == Type.STATUS_CHANGED && previousStatus != status
+                && (previousStatus == ApplicationStatus.APPROVED || status == ApplicationStatus.APPROVED);
+    }
+}
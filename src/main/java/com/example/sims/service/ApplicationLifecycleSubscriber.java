@@ -0,0 +1,11 @@
+package com.example.sims.service;
+
+// Receives application lifecycle events from OutboxRelay, on the relay thread, once the
+// change has committed. Delivery is at least once: an event comes again when the relay
+// stops before recording it, or when another subscriber fails on it. Handlers must be
+// idempotent and quick; anything slow belongs on the subscriber's own thread.
+public interface ApplicationLifecycleSubscriber {
+
+    // Throwing makes the relay retry this event, and the ones after it, on its next round
+    void handle(ApplicationLifecycleEvent event);
+}
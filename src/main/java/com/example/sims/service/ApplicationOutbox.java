@@ -0,0 +1,57 @@
+package com.example.sims.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Appends lifecycle events to the application_outbox table inside the caller's
+// transaction, so an event exists exactly when its change committed. Side effects run
+// later on OutboxRelay; the request only pays for one batched INSERT. The relay is
+// nudged after the commit, and polls anyway in case the nudge is lost.
+@Component
+public class ApplicationOutbox {
+    private static final String INSERT = "INSERT INTO application_outbox "
+            + "(event_type, application_id, student_id, internship_id, previous_status, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final OutboxRelay relay;
+
+    public ApplicationOutbox(JdbcTemplate jdbc, OutboxRelay relay) {
+        this.jdbc = jdbc;
+        this.relay = relay;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(ApplicationLifecycleEvent event) {
+        append(List.of(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Collection<ApplicationLifecycleEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (ApplicationLifecycleEvent event : events) {
+            args.add(new Object[] { event.type().name(), event.applicationId(), event.studentId(),
+                    event.internshipId(), event.previousStatus() == null ? null : event.previousStatus().name(),
+                    event.status().name(), Timestamp.valueOf(event.occurredAt()) });
+        }
+        jdbc.batchUpdate(INSERT, args);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                relay.wake();
+            }
+        });
+    }
+}
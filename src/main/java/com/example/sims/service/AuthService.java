@@ -1,45 +1,73 @@
 package com.example.sims.service;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.CompletableFuture;
+
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.sims.cache.IdentityCache;
 import com.example.sims.entity.CompanyEntity;
 import com.example.sims.entity.StudentProfileEntity;
 import com.example.sims.entity.UserEntity;
+import com.example.sims.realtime.PresenceTracker;
 import com.example.sims.repo.CompanyRepository;
 import com.example.sims.repo.StudentProfileRepository;
 import com.example.sims.repo.UserRepository;
 import com.example.sims.security.JwtTokenProvider;
+import com.example.sims.security.PasswordHashingExecutor;
 
 @Service
 public class AuthService {
     private final UserRepository userRepository;
     private final StudentProfileRepository studentProfileRepository;
     private final CompanyRepository companyRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHasher;
     private final JwtTokenProvider jwtTokenProvider;
+    private final IdentityCache identityCache;
+    private final PresenceTracker presenceTracker;
+    private final OverviewStatistics overviewStatistics;
+    private final ChangeVersions changeVersions;
+    private final TransactionTemplate transactions;
 
     public AuthService(UserRepository userRepository, StudentProfileRepository studentProfileRepository,
-            CompanyRepository companyRepository, PasswordEncoder passwordEncoder,
-            JwtTokenProvider jwtTokenProvider) {
+            CompanyRepository companyRepository, PasswordHashingExecutor passwordHasher,
+            JwtTokenProvider jwtTokenProvider, IdentityCache identityCache, PresenceTracker presenceTracker,
+            OverviewStatistics overviewStatistics, ChangeVersions changeVersions,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.studentProfileRepository = studentProfileRepository;
         this.companyRepository = companyRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
         this.jwtTokenProvider = jwtTokenProvider;
+        this.identityCache = identityCache;
+        this.presenceTracker = presenceTracker;
+        this.overviewStatistics = overviewStatistics;
+        this.changeVersions = changeVersions;
+        this.transactions = new TransactionTemplate(transactionManager);
+    }
+
+    // The password is hashed on the hashing pool before the transaction opens, so neither
+    // the request thread nor a database connection waits for BCrypt. Throws
+    // PasswordHashingBusyException right away when the pool is full.
+    public CompletableFuture<UserEntity> registerAsync(String email, String username, String password,
+            String role) {
+        if (userRepository.findByEmail(email).isPresent()) {
+            throw new IllegalArgumentException("Email already exists");
+        }
+        return passwordHasher.encodeAsync(password)
+                .thenApply(hash -> transactions.execute(status -> createUser(email, username, hash, role)));
     }
 
-    @Transactional
-    public UserEntity register(String email, String username, String password, String role) {
+    private UserEntity createUser(String email, String username, String passwordHash, String role) {
         if (userRepository.findByEmail(email).isPresent()) {
             throw new IllegalArgumentException("Email already exists");
         }
 
         // Create user
-        UserEntity user = new UserEntity(email, username, passwordEncoder.encode(password),
-                role != null ? role : "USER");
+        UserEntity user = new UserEntity(email, username, passwordHash, role != null ? role : "USER");
         user = userRepository.save(user);
+        overviewStatistics.userAdded(user.getRole(), user.getActive());
 
         // Create profile based on role
         if ("USER".equals(role) || "STUDENT".equals(role)) {
@@ -51,12 +79,17 @@ public class AuthService {
             // Create company profile
             CompanyEntity company = new CompanyEntity(user, username);
             companyRepository.save(company);
+            overviewStatistics.companyAdded();
+            changeVersions.changed(ChangeVersions.COMPANIES);
         }
 
         return user;
     }
 
-    public String login(String email, String password) {
+    // The request thread only looks the user up; the hash check runs on the hashing pool and
+    // the token is issued when it completes. Throws PasswordHashingBusyException right away
+    // when the pool is full.
+    public CompletableFuture<String> loginAsync(String email, String password) {
         UserEntity user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
@@ -64,27 +97,59 @@ public class AuthService {
             throw new IllegalArgumentException("User account is inactive");
         }
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new IllegalArgumentException("Invalid password");
-        }
+        return passwordHasher.matchesAsync(password, user.getPassword()).thenApply(matches -> {
+            if (!matches) {
+                throw new IllegalArgumentException("Invalid password");
+            }
+            rehashIfNeeded(user, password);
+            return issueToken(email, user);
+        });
+    }
+
+    public String issueToken(String email, UserEntity user) {
+        return jwtTokenProvider.generateToken(email, user.getRole(), user.getId(), findProfileId(user));
+    }
 
-        return jwtTokenProvider.generateToken(email, user.getRole());
+    // Re-hash with the configured cost while we still have the plain password; the login
+    // does not wait for it, and on any failure the next login tries again
+    private void rehashIfNeeded(UserEntity user, String password) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            passwordHasher.encodeAsync(password).thenAccept(hash -> {
+                userRepository.updatePassword(user.getId(), hash);
+                identityCache.evictUser(user.getId());
+            });
+        } catch (RuntimeException ex) {
+            /* keep the old hash */ }
     }
 
     public UserEntity getUserByEmail(String email) {
-        return userRepository.findByEmail(email).orElse(null);
+        return identityCache.findUserByEmail(email).orElse(null);
     }
 
-    @Transactional
-    public void markUserActiveByEmail(String email, boolean active) {
-        userRepository.findByEmail(email).ifPresent(u -> {
-            u.setActive(active);
-            userRepository.save(u);
-            try {
-                com.example.sims.realtime.ActiveUserNotifier.notifyChange();
-            } catch (Exception ex) {
-                /* ignore notifier failures */ }
-        });
+    public UserEntity getUserById(Long id) {
+        return identityCache.findUserById(id).orElse(null);
+    }
+
+    // Student profile id or company id for the user, null for admins
+    public Long findProfileId(UserEntity user) {
+        if ("USER".equals(user.getRole()) || "STUDENT".equals(user.getRole())) {
+            return identityCache.findStudentByUserId(user.getId()).map(StudentProfileEntity::getId).orElse(null);
+        } else if ("COMPANY".equals(user.getRole())) {
+            return identityCache.findCompanyByUserId(user.getId()).map(CompanyEntity::getId).orElse(null);
+        }
+        return null;
+    }
+
+    // Online presence only; users.active stays the "account enabled" flag
+    public void markUserOnline(String email, boolean online) {
+        if (online) {
+            presenceTracker.join(email);
+        } else {
+            presenceTracker.leave(email);
+        }
     }
 
     public UserEntity updateUser(Long id, String username, String email) {
@@ -96,6 +161,12 @@ public class AuthService {
         if (email != null && !email.isBlank()) {
             user.setEmail(email);
         }
-        return userRepository.save(user);
+        try {
+            UserEntity saved = userRepository.save(user);
+            changeVersions.changed(ChangeVersions.STUDENTS);
+            return saved;
+        } finally {
+            identityCache.evictUser(id);
+        }
     }
 }
@@ -0,0 +1,119 @@
+package com.example.sims.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// The write side shared by the in-memory internship indexes: one daemon thread runs the
+// full rebuild and every incremental update in order, coalesces rebuild requests, makes
+// the first query wait for a build, and counts queries, updates and rebuilds. The index
+// keeps its own data and lock; rebuild and update bodies take its write lock.
+final class BackgroundIndexWriter {
+    private final Logger log;
+    private final String name;
+    private final Runnable rebuild;
+    private final ExecutorService writer;
+
+    private volatile boolean built;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    // name starts the log and error messages, e.g. "Search index"
+    BackgroundIndexWriter(Class<?> owner, String name, String threadName, Runnable rebuild) {
+        this.log = LoggerFactory.getLogger(owner);
+        this.name = name;
+        this.rebuild = rebuild;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    boolean isBuilt() {
+        return built;
+    }
+
+    // Counts the query and, when it beats the startup build, waits for a build on the
+    // writer thread so it cannot race the incremental updates queued there
+    void beforeQuery() {
+        queries.incrementAndGet();
+        if (built) {
+            return;
+        }
+        try {
+            writer.submit(() -> {
+                if (!built) {
+                    rebuildNow();
+                }
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the " + name.toLowerCase(Locale.ROOT), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(name + " unavailable", e.getCause());
+        }
+    }
+
+    // Requests arriving while one is still queued share it
+    void scheduleRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            writer.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuildNow();
+                } catch (RuntimeException e) {
+                    log.warn("{} rebuild failed", name, e);
+                }
+            });
+        }
+    }
+
+    // A failed update leaves the index unsure of the row, so it is rebuilt
+    void scheduleUpdate(Long internshipId, Runnable update) {
+        writer.execute(() -> {
+            try {
+                update.run();
+                updates.incrementAndGet();
+            } catch (RuntimeException e) {
+                log.warn("{} update for internship {} failed, rebuilding", name, internshipId, e);
+                scheduleRebuild();
+            }
+        });
+    }
+
+    // Waits for the work queued so far; lets tests read their own updates
+    void awaitQueued() throws InterruptedException {
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void putCounters(Map<String, Object> stats) {
+        stats.put("queries", queries.get());
+        stats.put("updates", updates.get());
+        stats.put("rebuilds", rebuilds.get());
+    }
+
+    void stop() {
+        writer.shutdownNow();
+    }
+
+    private void rebuildNow() {
+        rebuild.run();
+        built = true;
+        rebuilds.incrementAndGet();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.sims.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.example.sims.entity.ApplicationEntity;
+
+// Modification versions for the data behind frequently re-fetched listings, kept per
+// aggregate (one company's applications, one student's applications) or globally. The
+// service write methods bump the affected keys after commit; controllers turn the
+// versions of the keys a response depends on into an ETag and Last-Modified and answer
+// conditional requests with 304 before running a query. Versions are millisecond
+// timestamps from a monotonic clock; keys never written since startup report the
+// startup time, so every client revalidates once after a restart. Versions double as the
+// time of the change: a request that stamped a recently changed key reads the primary
+// (see ReplicaRoutingDataSource), so a lagging replica cannot put old rows under a new ETag.
+@Component
+public class ChangeVersions {
+
+    // company list shown to admins
+    public static final String COMPANIES = "companies";
+    // internship titles and company names shown in application listings
+    public static final String INTERNSHIPS = "internships";
+    // student names and emails shown in company application listings
+    public static final String STUDENTS = "students";
+
+    private static final String STAMPED_CHANGE = ChangeVersions.class.getName() + ".STAMPED_CHANGE";
+
+    public static String companyApplications(Long companyId) {
+        return "company-applications:" + companyId;
+    }
+
+    public static String studentApplications(Long studentId) {
+        return "student-applications:" + studentId;
+    }
+
+    // Both listings an application appears in
+    public static String[] applicationKeys(ApplicationEntity application) {
+        return new String[] { studentApplications(application.getStudent().getId()),
+                companyApplications(application.getInternship().getCompany().getId()) };
+    }
+
+    // Validators for one response; lastModified is -1 when it cannot be used safely
+    public record Stamp(String etag, long lastModified) {
+    }
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private final AtomicLong bumps = new AtomicLong();
+    private volatile long epoch = tick();
+
+    public void changed(String... keys) {
+        afterCommit(() -> bump(keys));
+    }
+
+    // For deletes that cascade across aggregates
+    public void changedAll() {
+        afterCommit(() -> {
+            epoch = tick();
+            versions.clear();
+            bumps.incrementAndGet();
+        });
+    }
+
+    // Already after commit; a synchronization registered now would never run
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInternshipChanged(InternshipChangedEvent event) {
+        bump(INTERNSHIPS);
+    }
+
+    public Stamp stamp(String... keys) {
+        StringJoiner etag = new StringJoiner("-", "W/\"", "\"");
+        etag.add(Integer.toString(String.join(",", keys).hashCode() & 0x7fffffff, 36));
+        long latest = 0;
+        for (String key : keys) {
+            long version = versions.getOrDefault(key, epoch);
+            etag.add(Long.toString(version, 36));
+            latest = Math.max(latest, version);
+        }
+        // Last-Modified has second precision: a change in the current second could be
+        // followed by another one in the same second, so only the ETag is offered then
+        boolean sameSecond = latest / 1000 == System.currentTimeMillis() / 1000;
+        rememberStamped(latest);
+        return new Stamp(etag.toString(), sameSecond ? -1 : latest);
+    }
+
+    // Time of the latest change among the keys stamped by the current request; 0 outside
+    // a request or before any stamp
+    public static long stampedChangeTime() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        Object at = attributes == null ? null
+                : attributes.getAttribute(STAMPED_CHANGE, RequestAttributes.SCOPE_REQUEST);
+        return at instanceof Long time ? time : 0;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("trackedKeys", versions.size());
+        m.put("bumps", bumps.get());
+        m.put("epoch", epoch);
+        return m;
+    }
+
+    private void bump(String... keys) {
+        long version = tick();
+        for (String key : keys) {
+            versions.put(key, version);
+        }
+        bumps.incrementAndGet();
+    }
+
+    private static void rememberStamped(long changedAt) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && changedAt > stampedChangeTime()) {
+            attributes.setAttribute(STAMPED_CHANGE, changedAt, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    private long tick() {
+        long now = System.currentTimeMillis();
+        return clock.accumulateAndGet(now, (previous, current) -> Math.max(previous + 1, current));
+    }
+
+    // Bumping before the commit could let a reader cache the old rows under the new version
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -1,11 +1,20 @@
 package com.example.sims.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.dto.ApplicationListingRow;
+import com.example.sims.dto.ApplicationStatusRow;
 import com.example.sims.entity.ApplicationEntity;
 import com.example.sims.entity.CompanyEntity;
 import com.example.sims.entity.InternshipEntity;
@@ -15,66 +24,128 @@ import com.example.sims.repo.InternshipRepository;
 
 @Service
 public class CompanyService {
+    public static final int MAX_BULK_APPLICATIONS = 1000;
+
+    public record BulkStatusResult(int changed, int unchanged) {
+    }
+
     private final CompanyRepository companyRepository;
     private final InternshipRepository internshipRepository;
     private final ApplicationRepository applicationRepository;
+    private final IdentityCache identityCache;
+    private final OverviewStatistics overviewStatistics;
+    private final ApplicationEventPublisher events;
+    private final ChangeVersions changeVersions;
+    private final SeatAllocator seatAllocator;
+    private final ApplicationOutbox applicationOutbox;
 
     public CompanyService(CompanyRepository companyRepository,
                           InternshipRepository internshipRepository,
-                          ApplicationRepository applicationRepository) {
+                          ApplicationRepository applicationRepository,
+                          IdentityCache identityCache,
+                          OverviewStatistics overviewStatistics,
+                          ApplicationEventPublisher events,
+                          ChangeVersions changeVersions,
+                          SeatAllocator seatAllocator,
+                          ApplicationOutbox applicationOutbox) {
         this.companyRepository = companyRepository;
         this.internshipRepository = internshipRepository;
         this.applicationRepository = applicationRepository;
+        this.identityCache = identityCache;
+        this.overviewStatistics = overviewStatistics;
+        this.events = events;
+        this.changeVersions = changeVersions;
+        this.seatAllocator = seatAllocator;
+        this.applicationOutbox = applicationOutbox;
     }
 
     public Optional<CompanyEntity> getCompanyByUserId(Long userId) {
-        return companyRepository.findByUserId(userId);
+        return identityCache.findCompanyByUserId(userId);
+    }
+
+    public Optional<CompanyEntity> getCompanyById(Long companyId) {
+        return identityCache.findCompanyById(companyId);
     }
 
+    // Lazy reference for associations when only the id is known
+    public CompanyEntity getCompanyReference(Long companyId) {
+        return companyRepository.getReferenceById(companyId);
+    }
+
+    @Transactional(readOnly = true)
     public List<InternshipEntity> getCompanyInternships(Long companyId) {
         return internshipRepository.findByCompanyIdOrderByCreatedAtDesc(companyId);
     }
 
-    public List<ApplicationEntity> getCompanyApplications(Long companyId) {
-        return applicationRepository.findByCompanyId(companyId);
+    @Transactional(readOnly = true)
+    public List<ApplicationListingRow> getCompanyApplications(Long companyId) {
+        return applicationRepository.findListingByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public List<ApplicationEntity> getInternshipApplications(Long internshipId) {
         return applicationRepository.findByInternshipId(internshipId);
     }
 
+    @Transactional(readOnly = true)
     public Long getTotalApplications(Long companyId) {
         return applicationRepository.countByCompanyId(companyId);
     }
 
+    @Transactional(readOnly = true)
     public Long getPendingApplications(Long companyId) {
         return applicationRepository.countPendingByCompanyId(companyId);
     }
 
     @Transactional
     public InternshipEntity createInternship(InternshipEntity internship) {
-        return internshipRepository.save(internship);
+        SeatAllocator.checkSeats(internship.getSeats());
+        InternshipEntity saved = internshipRepository.save(internship);
+        overviewStatistics.internshipAdded();
+        events.publishEvent(new InternshipChangedEvent(saved.getId()));
+        return saved;
     }
 
+    // Throws SeatsInUseException when fewer seats than are taken would be left
     @Transactional
     public InternshipEntity updateInternship(InternshipEntity internship) {
-        return internshipRepository.save(internship);
+        seatAllocator.resize(internship.getId(), internship.getSeats());
+        InternshipEntity saved = internshipRepository.save(internship);
+        events.publishEvent(new InternshipChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public void deleteInternship(Long internshipId) {
         internshipRepository.deleteById(internshipId);
+        overviewStatistics.cascadeDeleted();
+        events.publishEvent(new InternshipChangedEvent(internshipId));
     }
 
+    // Edits a freshly loaded row, never a cached copy; the cache entry goes after the commit
     @Transactional
-    public CompanyEntity updateCompanyProfile(CompanyEntity company) {
-        return companyRepository.save(company);
+    public CompanyEntity updateCompanyProfile(Long companyId, String companyName, String address,
+            String contactEmail, String contactPhone) {
+        CompanyEntity company = companyRepository.findById(companyId)
+                .orElseThrow(() -> new IllegalArgumentException("Company not found"));
+        company.setCompanyName(companyName);
+        company.setAddress(address);
+        company.setContactEmail(contactEmail);
+        company.setContactPhone(contactPhone);
+        CompanyEntity saved = companyRepository.save(company);
+        // the catalog shows the company name
+        events.publishEvent(new InternshipChangedEvent(null));
+        changeVersions.changed(ChangeVersions.COMPANIES);
+        identityCache.evictCompany(companyId);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public Optional<InternshipEntity> getInternshipById(Long internshipId) {
         return internshipRepository.findById(internshipId);
     }
 
+    @Transactional(readOnly = true)
     public Optional<ApplicationEntity> getApplicationById(Long applicationId) {
         return applicationRepository.findById(applicationId);
     }
@@ -86,9 +157,57 @@ public class CompanyService {
         Optional<ApplicationEntity> appOpt = applicationRepository.findById(applicationId);
         if (appOpt.isPresent()) {
             ApplicationEntity application = appOpt.get();
-            application.setStatus(status);
-            return applicationRepository.save(application);
+            ApplicationEntity.ApplicationStatus previous = application.getStatus();
+            // conditional updates of the status and the seat count, see SeatAllocator
+            seatAllocator.changeStatus(application, status);
+            overviewStatistics.applicationStatusChanged(previous, status);
+            changeVersions.changed(ChangeVersions.applicationKeys(application));
+            if (previous != status) {
+                // subscribers (the facet index's free seats, ...) follow from the outbox
+                applicationOutbox.append(ApplicationLifecycleEvent.statusChanged(application, previous));
+            }
+            return application;
         }
         return null;
     }
+
+    // Moves many applications of one company to a status in a few statements: one query
+    // checks they all belong to the company, then SeatAllocator updates them set-based.
+    // Ids of other companies' applications reject the whole request.
+    @Transactional
+    public BulkStatusResult updateApplicationStatuses(Long companyId, Collection<Long> applicationIds,
+            ApplicationEntity.ApplicationStatus status) {
+        Set<Long> ids = new TreeSet<>();
+        for (Long id : applicationIds) {
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            return new BulkStatusResult(0, 0);
+        }
+        if (ids.size() > MAX_BULK_APPLICATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_APPLICATIONS + " applications per request");
+        }
+        List<ApplicationStatusRow> owned = applicationRepository.findStatusRowsOfCompany(ids, companyId);
+        if (owned.size() != ids.size()) {
+            throw new IllegalArgumentException((ids.size() - owned.size()) + " of the applications were not found");
+        }
+
+        List<ApplicationStatusRow> changed = seatAllocator.changeStatuses(owned, status);
+        if (changed.isEmpty()) {
+            return new BulkStatusResult(0, owned.size());
+        }
+        Set<String> keys = new HashSet<>();
+        keys.add(ChangeVersions.companyApplications(companyId));
+        List<ApplicationLifecycleEvent> lifecycle = new ArrayList<>(changed.size());
+        for (ApplicationStatusRow row : changed) {
+            overviewStatistics.applicationStatusChanged(row.status(), status);
+            keys.add(ChangeVersions.studentApplications(row.studentId()));
+            lifecycle.add(ApplicationLifecycleEvent.statusChanged(row, status));
+        }
+        changeVersions.changed(keys.toArray(String[]::new));
+        applicationOutbox.append(lifecycle);
+        return new BulkStatusResult(changed.size(), owned.size() - changed.size());
+    }
 }
@@ -0,0 +1,135 @@
+package com.example.sims.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Runs the independent lookups behind a dashboard page concurrently on virtual threads,
+// so the page costs as much as its slowest query instead of the sum of all of them.
+// Usage mirrors StructuredTaskScope: fork the queries, join, read the parts, close.
+// A query that fails or exceeds its timeout yields its fallback and marks the result partial.
+@Component
+public class DashboardAssembler {
+    private static final Logger log = LoggerFactory.getLogger(DashboardAssembler.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long defaultTimeoutMillis;
+
+    public DashboardAssembler(@Value("${dashboard.query-timeout-ms:2000}") long defaultTimeoutMillis) {
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+    }
+
+    public Scope open() {
+        return new Scope();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final List<Part<?>> parts = new ArrayList<>();
+        private boolean partial;
+
+        private Scope() {
+        }
+
+        public <T> Part<T> fork(Callable<T> query, T fallback) {
+            return fork(query, fallback, defaultTimeoutMillis);
+        }
+
+        public <T> Part<T> fork(Callable<T> query, T fallback, long timeoutMillis) {
+            // forked reads run as the caller, so routing sees who is asking
+            Part<T> part = new Part<>(executor.submit(new DelegatingSecurityContextCallable<>(query)), fallback,
+                    System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+            parts.add(part);
+            return part;
+        }
+
+        // Waits for every forked query up to its own deadline
+        public Scope join() {
+            for (Part<?> part : parts) {
+                if (!part.await()) {
+                    partial = true;
+                }
+            }
+            return this;
+        }
+
+        // True when at least one part is showing its fallback value
+        public boolean isPartial() {
+            return partial;
+        }
+
+        @Override
+        public void close() {
+            for (Part<?> part : parts) {
+                part.future.cancel(true);
+            }
+        }
+    }
+
+    public static final class Part<T> {
+        private final Future<T> future;
+        private final T fallback;
+        private final long deadlineNanos;
+        private T value;
+        private boolean done;
+        private boolean succeeded;
+
+        private Part(Future<T> future, T fallback, long deadlineNanos) {
+            this.future = future;
+            this.fallback = fallback;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private boolean await() {
+            if (done) {
+                return succeeded;
+            }
+            done = true;
+            try {
+                value = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                succeeded = true;
+                return true;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Dashboard query timed out, using fallback");
+            } catch (ExecutionException e) {
+                log.warn("Dashboard query failed, using fallback", e.getCause());
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                Thread.currentThread().interrupt();
+            }
+            value = fallback;
+            return false;
+        }
+
+        public T get() {
+            if (!done) {
+                await();
+            }
+            return value;
+        }
+
+        // False when get() returns the fallback
+        public boolean isAvailable() {
+            return done ? succeeded : await();
+        }
+    }
+}
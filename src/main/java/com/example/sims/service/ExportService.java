@@ -0,0 +1,183 @@
+package com.example.sims.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sims.dto.ApplicationListingRow;
+import com.example.sims.entity.UserEntity;
+import com.example.sims.repo.ApplicationRepository;
+import com.example.sims.repo.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Writes full-table exports straight from a database cursor to the response. Rows are
+// read in a read-only transaction and written one at a time; applications come as flat
+// projection rows, and for entity exports the persistence context is cleared every fetch
+// batch, so memory stays flat however many rows there are.
+@Service
+public class ExportService {
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return CSV;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value);
+            }
+        }
+    }
+
+    private final ApplicationRepository applicationRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ExportService(ApplicationRepository applicationRepository, UserRepository userRepository,
+            PlatformTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.applicationRepository = applicationRepository;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void exportApplications(Format format, OutputStream out) throws IOException {
+        export(format, out, applicationRepository::streamAllForExport, ExportService::applicationRow);
+    }
+
+    // Never includes password hashes
+    public void exportUsers(Format format, OutputStream out) throws IOException {
+        export(format, out, userRepository::streamAllForExport, ExportService::userRow);
+    }
+
+    private <T> void export(Format format, OutputStream out, Supplier<Stream<T>> source,
+            Function<T, Map<String, Object>> toRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<T> rows = source.get()) {
+                    long written = 0;
+                    boolean header = format == Format.CSV;
+                    for (T item : (Iterable<T>) rows::iterator) {
+                        Map<String, Object> row = toRow.apply(item);
+                        if (header) {
+                            writeCsv(writer, row.keySet());
+                            header = false;
+                        }
+                        if (format == Format.CSV) {
+                            writeCsv(writer, row.values());
+                        } else {
+                            writer.write(objectMapper.writeValueAsString(row));
+                            writer.write('\n');
+                        }
+                        // drop the rows written so far and push them to the client
+                        if (++written % ApplicationRepository.EXPORT_FETCH_SIZE == 0) {
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // usually the client went away; the transaction has been rolled back
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private static Map<String, Object> applicationRow(ApplicationListingRow a) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", a.id());
+        m.put("studentId", a.studentId());
+        m.put("studentCode", a.studentCode());
+        m.put("studentName", a.studentName());
+        m.put("studentEmail", a.studentEmail());
+        m.put("internshipId", a.internshipId());
+        m.put("internshipTitle", a.internshipTitle());
+        m.put("companyName", a.companyName());
+        m.put("status", a.status() != null ? a.status().name() : null);
+        m.put("appliedAt", a.appliedAt());
+        return m;
+    }
+
+    private static Map<String, Object> userRow(UserEntity u) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", u.getId());
+        m.put("username", u.getUsername());
+        m.put("email", u.getEmail());
+        m.put("role", u.getRole());
+        m.put("active", u.getActive());
+        m.put("createdAt", u.getCreatedAt());
+        return m;
+    }
+
+    private static void writeCsv(Writer writer, Iterable<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(csvField(value));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting; cells that a spreadsheet would run as a formula get a leading quote
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String s = value.toString();
+        if (value instanceof String && !s.isEmpty() && "=+-@\t\r".indexOf(s.charAt(0)) >= 0) {
+            s = "'" + s;
+        }
+        if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+            s = '"' + s.replace("\"", "\"\"") + '"';
+        }
+        return s;
+    }
+}
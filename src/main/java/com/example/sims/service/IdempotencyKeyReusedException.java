@@ -0,0 +1,16 @@
+package com.example.sims.service;
+
+// Thrown when a student sends an idempotency key that already belongs to their application
+// for a different internship; the stored application is not returned for it.
+public class IdempotencyKeyReusedException extends RuntimeException {
+    private final String key;
+
+    public IdempotencyKeyReusedException(String key) {
+        super("This idempotency key was already used for another application");
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.sims.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sims.entity.InternshipEntity;
+import com.example.sims.repo.InternshipRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+// The internship catalog every student browses, built once per change instead of per
+// request. A snapshot holds the rows, their JSON encoding (plain and gzipped) and an
+// ETag derived from the content; it is replaced atomically, so readers never see a
+// half-built catalog. Changes arrive as InternshipChangedEvent after commit and are
+// coalesced into one background rebuild.
+@Component
+public class InternshipCatalog {
+    private static final Logger log = LoggerFactory.getLogger(InternshipCatalog.class);
+
+    public record Entry(Long id, String title, String description, String location, Integer seats,
+            LocalDate startDate, LocalDate endDate, LocalDateTime createdAt, Long companyId, String company) {
+    }
+
+    public record Snapshot(long version, List<Entry> entries, byte[] json, byte[] gzippedJson, String etag) {
+
+        // a distinct strong validator per content coding
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    private final InternshipRepository internshipRepository;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "internship-catalog");
+        t.setDaemon(true);
+        return t;
+    });
+    private volatile Snapshot current;
+
+    public InternshipCatalog(InternshipRepository internshipRepository, ObjectMapper objectMapper) {
+        this.internshipRepository = internshipRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                if (current == null) {
+                    rebuild();
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInternshipChanged(InternshipChangedEvent event) {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                // cleared first so a change during the rebuild schedules another one
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    log.warn("Internship catalog rebuild failed, serving version {}",
+                            current != null ? current.version() : null, e);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Snapshot snapshot = current;
+        return snapshot == null ? Map.of("built", false)
+                : Map.of("built", true, "version", snapshot.version(), "internships", snapshot.entries().size(),
+                        "jsonBytes", snapshot.json().length, "gzipBytes", snapshot.gzippedJson().length);
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    synchronized void rebuild() {
+        List<Entry> entries = internshipRepository.findAllWithCompany().stream()
+                .map(InternshipCatalog::entry)
+                .toList();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(entries);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode internship catalog", e);
+        }
+        current = new Snapshot(versions.incrementAndGet(), entries, json, gzip(json), etag(json));
+    }
+
+    static Entry entry(InternshipEntity i) {
+        return new Entry(i.getId(), i.getTitle(), i.getDescription(), i.getLocation(), i.getSeats(),
+                i.getStartDate(), i.getEndDate(), i.getCreatedAt(),
+                i.getCompany() != null ? i.getCompany().getId() : null, i.getCompanyName());
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // content hash, so every node and every restart agree on the tag of the same catalog
+    private static String etag(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.sims.service;
+
+// Published when an internship, or the company name shown with it, is created, changed
+// or deleted; internshipId is null when the change touches several internships.
+public record InternshipChangedEvent(Long internshipId) {
+}
@@ -0,0 +1,414 @@
+package com.example.sims.service;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sims.entity.InternshipEntity;
+import com.example.sims.repo.InternshipRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// In-memory facet index for filtering internships by location, company, date window,
+// open/closed status and seat availability. Every internship gets a small integer
+// ordinal and each facet value a bitmap over ordinals, so a filter is a few bitmap
+// intersections and a facet count a cardinality. Start and end dates are kept as one
+// bitmap per date in sorted maps: a date window is the union of a sub-map, and "open"
+// (no end date, or an end date from today on) is evaluated per query, so no stored
+// status goes stale at midnight. Updates follow InternshipChangedEvent,
+// InternshipSeatsChangedEvent and approvals from the outbox on one background thread
+// (BackgroundIndexWriter), like InternshipSearchIndex.
+@Component
+public class InternshipFacetIndex implements ApplicationLifecycleSubscriber {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public enum Status {
+        OPEN, CLOSED;
+
+        public static Status parse(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported status: " + value);
+            }
+        }
+    }
+
+    // Empty collections and nulls leave that facet unfiltered
+    public record Filter(Collection<String> locations, Collection<Long> companyIds, LocalDate startFrom,
+            LocalDate endTo, Status status, Boolean available) {
+    }
+
+    public record FacetCount(String value, String label, int count) {
+    }
+
+    public record Result(int total, int page, int size, List<InternshipCatalog.Entry> items,
+            Map<String, List<FacetCount>> facets) {
+    }
+
+    private record Row(InternshipCatalog.Entry entry, String locationKey, int seatsFree) {
+    }
+
+    private final InternshipRepository internshipRepository;
+
+    // guarded by lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final BitSet available = new BitSet();
+    private final BitSet noStartDate = new BitSet();
+    private final BitSet noEndDate = new BitSet();
+    private final Map<String, BitSet> byLocation = new HashMap<>();
+    private final Map<String, String> locationLabels = new HashMap<>();
+    private final Map<Long, BitSet> byCompany = new HashMap<>();
+    private final Map<Long, String> companyLabels = new HashMap<>();
+    private final NavigableMap<LocalDate, BitSet> byStartDate = new TreeMap<>();
+    private final NavigableMap<LocalDate, BitSet> byEndDate = new TreeMap<>();
+
+    private final BackgroundIndexWriter writer;
+
+    public InternshipFacetIndex(InternshipRepository internshipRepository) {
+        this.internshipRepository = internshipRepository;
+        this.writer = new BackgroundIndexWriter(InternshipFacetIndex.class, "Facet index", "internship-facets",
+                this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        writer.scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInternshipChanged(InternshipChangedEvent event) {
+        if (event.internshipId() == null) {
+            writer.scheduleRebuild();
+        } else {
+            scheduleRefresh(event.internshipId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSeatsChanged(InternshipSeatsChangedEvent event) {
+        scheduleRefresh(event.internshipId());
+    }
+
+    // A refresh reloads the row, so a redelivered event costs only a query
+    @Override
+    public void handle(ApplicationLifecycleEvent event) {
+        if (event.seatsChanged()) {
+            scheduleRefresh(event.internshipId());
+        }
+    }
+
+    public Result query(Filter filter, Integer page, Integer size) {
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        writer.beforeQuery();
+        LocalDate today = LocalDate.now();
+
+        lock.readLock().lock();
+        try {
+            BitSet locationMatch = anyOf(filter.locations(), v -> byLocation.get(locationKey(v)));
+            BitSet companyMatch = anyOf(filter.companyIds(), byCompany::get);
+            BitSet dateMatch = dateWindow(filter.startFrom(), filter.endTo());
+            BitSet open = open(today);
+            BitSet statusMatch = filter.status() == null ? null
+                    : filter.status() == Status.OPEN ? open : andNot(live, open);
+            BitSet availableMatch = filter.available() == null ? null
+                    : filter.available() ? available : andNot(live, available);
+
+            BitSet matches = intersect(live, locationMatch, companyMatch, dateMatch, statusMatch, availableMatch);
+            List<InternshipCatalog.Entry> items = new ArrayList<>(matches.cardinality());
+            for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+                items.add(rows.get(i).entry());
+            }
+            items.sort(Comparator.comparing(InternshipCatalog.Entry::createdAt,
+                    Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(InternshipCatalog.Entry::id, Comparator.reverseOrder()));
+            int from = (int) Math.min((long) pageNumber * pageSize, items.size());
+            int to = Math.min(from + pageSize, items.size());
+
+            // each facet is counted with every other filter applied, so its values stay selectable
+            Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+            BitSet base = intersect(live, companyMatch, dateMatch, statusMatch, availableMatch);
+            facets.put("location", counts(base, byLocation, locationLabels::get));
+            base = intersect(live, locationMatch, dateMatch, statusMatch, availableMatch);
+            facets.put("company", counts(base, byCompany, companyLabels::get));
+            base = intersect(live, locationMatch, companyMatch, dateMatch, availableMatch);
+            facets.put("status", List.of(
+                    new FacetCount(Status.OPEN.name(), "Open", andCardinality(base, open)),
+                    new FacetCount(Status.CLOSED.name(), "Closed", base.cardinality() - andCardinality(base, open))));
+            base = intersect(live, locationMatch, companyMatch, dateMatch, statusMatch);
+            int free = andCardinality(base, available);
+            facets.put("available", List.of(
+                    new FacetCount("true", "Seats available", free),
+                    new FacetCount("false", "Full", base.cardinality() - free)));
+
+            return new Result(items.size(), pageNumber, pageSize, List.copyOf(items.subList(from, to)), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            m.put("built", writer.isBuilt());
+            m.put("internships", live.cardinality());
+            m.put("ordinals", rows.size());
+            m.put("locations", byLocation.size());
+            m.put("companies", byCompany.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        writer.putCounters(m);
+        return m;
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.stop();
+    }
+
+    // Returns once the refreshes queued before the call are applied
+    void awaitUpdates() throws InterruptedException {
+        writer.awaitQueued();
+    }
+
+    private BitSet open(LocalDate today) {
+        BitSet open = (BitSet) noEndDate.clone();
+        for (BitSet b : byEndDate.tailMap(today, true).values()) {
+            open.or(b);
+        }
+        return open;
+    }
+
+    // starts on or after startFrom and ends on or before endTo
+    private BitSet dateWindow(LocalDate startFrom, LocalDate endTo) {
+        BitSet window = null;
+        if (startFrom != null) {
+            window = union(byStartDate.tailMap(startFrom, true).values());
+        }
+        if (endTo != null) {
+            BitSet ends = union(byEndDate.headMap(endTo, true).values());
+            if (window == null) {
+                window = ends;
+            } else {
+                window.and(ends);
+            }
+        }
+        return window;
+    }
+
+    private static <K> BitSet anyOf(Collection<K> values, Function<K, BitSet> lookup) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K value : values) {
+            BitSet b = lookup.apply(value);
+            if (b != null) {
+                result.or(b);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet union(Collection<BitSet> bitmaps) {
+        BitSet result = new BitSet();
+        for (BitSet b : bitmaps) {
+            result.or(b);
+        }
+        return result;
+    }
+
+    // null filters match everything
+    private static BitSet intersect(BitSet first, BitSet... filters) {
+        BitSet result = (BitSet) first.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static BitSet andNot(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.andNot(b);
+        return result;
+    }
+
+    private static int andCardinality(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result.cardinality();
+    }
+
+    private static <K> List<FacetCount> counts(BitSet base, Map<K, BitSet> values, Function<K, String> label) {
+        List<FacetCount> counts = new ArrayList<>();
+        for (Map.Entry<K, BitSet> value : values.entrySet()) {
+            int count = andCardinality(base, value.getValue());
+            if (count > 0) {
+                counts.add(new FacetCount(String.valueOf(value.getKey()), label.apply(value.getKey()), count));
+            }
+        }
+        counts.sort(Comparator.comparingInt(FacetCount::count).reversed()
+                .thenComparing(FacetCount::label, Comparator.nullsLast(Comparator.naturalOrder())));
+        return counts;
+    }
+
+    private void scheduleRefresh(Long internshipId) {
+        writer.scheduleUpdate(internshipId, () -> {
+            InternshipEntity internship = internshipRepository.findByIdWithCompany(internshipId).orElse(null);
+            lock.writeLock().lock();
+            try {
+                remove(internshipId);
+                if (internship != null) {
+                    add(InternshipCatalog.entry(internship), internship.getSeatsTaken());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void rebuild() {
+        List<InternshipEntity> internships = internshipRepository.findAllWithCompany();
+        lock.writeLock().lock();
+        try {
+            // a rebuild also compacts the ordinals freed by deletes
+            rows.clear();
+            ordinals.clear();
+            freeOrdinals.clear();
+            for (BitSet b : List.of(live, available, noStartDate, noEndDate)) {
+                b.clear();
+            }
+            byLocation.clear();
+            locationLabels.clear();
+            byCompany.clear();
+            companyLabels.clear();
+            byStartDate.clear();
+            byEndDate.clear();
+            for (InternshipEntity internship : internships) {
+                add(InternshipCatalog.entry(internship), internship.getSeatsTaken());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // callers hold the write lock
+    private void add(InternshipCatalog.Entry entry, Integer seatsTaken) {
+        Integer reused = freeOrdinals.poll();
+        int ordinal = reused != null ? reused : rows.size();
+        String locationKey = locationKey(entry.location());
+        int seatsFree = (entry.seats() != null ? entry.seats() : 0) - (seatsTaken != null ? seatsTaken : 0);
+        Row row = new Row(entry, locationKey, seatsFree);
+        if (reused != null) {
+            rows.set(ordinal, row);
+        } else {
+            rows.add(row);
+        }
+        ordinals.put(entry.id(), ordinal);
+        live.set(ordinal);
+        if (seatsFree > 0) {
+            available.set(ordinal);
+        }
+        if (locationKey != null) {
+            byLocation.computeIfAbsent(locationKey, k -> new BitSet()).set(ordinal);
+            locationLabels.putIfAbsent(locationKey, entry.location().trim());
+        }
+        if (entry.companyId() != null) {
+            byCompany.computeIfAbsent(entry.companyId(), k -> new BitSet()).set(ordinal);
+            companyLabels.put(entry.companyId(), entry.company());
+        }
+        setDate(entry.startDate(), byStartDate, noStartDate, ordinal);
+        setDate(entry.endDate(), byEndDate, noEndDate, ordinal);
+    }
+
+    private void remove(Long internshipId) {
+        Integer ordinal = ordinals.remove(internshipId);
+        if (ordinal == null) {
+            return;
+        }
+        Row row = rows.get(ordinal);
+        rows.set(ordinal, null);
+        live.clear(ordinal);
+        available.clear(ordinal);
+        if (row.locationKey() != null) {
+            clear(byLocation, row.locationKey(), ordinal);
+            if (!byLocation.containsKey(row.locationKey())) {
+                locationLabels.remove(row.locationKey());
+            }
+        }
+        if (row.entry().companyId() != null) {
+            clear(byCompany, row.entry().companyId(), ordinal);
+            if (!byCompany.containsKey(row.entry().companyId())) {
+                companyLabels.remove(row.entry().companyId());
+            }
+        }
+        clearDate(row.entry().startDate(), byStartDate, noStartDate, ordinal);
+        clearDate(row.entry().endDate(), byEndDate, noEndDate, ordinal);
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void setDate(LocalDate date, NavigableMap<LocalDate, BitSet> byDate, BitSet none, int ordinal) {
+        if (date == null) {
+            none.set(ordinal);
+        } else {
+            byDate.computeIfAbsent(date, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private static void clearDate(LocalDate date, NavigableMap<LocalDate, BitSet> byDate, BitSet none,
+            int ordinal) {
+        if (date == null) {
+            none.clear(ordinal);
+        } else {
+            clear(byDate, date, ordinal);
+        }
+    }
+
+    // drops the value once no internship has it
+    private static <K> void clear(Map<K, BitSet> values, K key, int ordinal) {
+        BitSet b = values.get(key);
+        if (b != null) {
+            b.clear(ordinal);
+            if (b.isEmpty()) {
+                values.remove(key);
+            }
+        }
+    }
+
+    // locations group case-insensitively; the first spelling seen is the label
+    private static String locationKey(String location) {
+        return location == null || location.isBlank() ? null : location.trim().toLowerCase(Locale.ROOT);
+    }
+}
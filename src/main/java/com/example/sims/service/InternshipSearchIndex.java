@@ -0,0 +1,270 @@
+package com.example.sims.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.sims.entity.InternshipEntity;
+import com.example.sims.repo.InternshipRepository;
+
+import jakarta.annotation.PreDestroy;
+
+// In-memory inverted index over internship title, company, location and description,
+// ranked with BM25. Terms sit in a sorted dictionary so every query word also matches
+// the terms it is a prefix of. The index is built at startup and then updated one
+// internship at a time from InternshipChangedEvent; events without an id (company
+// renames, cascading user deletes) rebuild it. All writes run on one background thread
+// (BackgroundIndexWriter), queries only take the read lock.
+@Component
+public class InternshipSearchIndex {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // BM25 parameters and per-field weights applied to term frequencies
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int COMPANY_WEIGHT = 2;
+    private static final int LOCATION_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // a term reached only through a prefix scores less than the word itself
+    private static final double PREFIX_DISCOUNT = 0.6;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "at", "for", "in", "of", "on",
+            "or", "the", "to", "with");
+
+    public record Hit(InternshipCatalog.Entry internship, double score) {
+    }
+
+    public record Page(String query, long total, int page, int size, List<Hit> hits) {
+    }
+
+    private record Document(InternshipCatalog.Entry entry, Map<String, Integer> terms, int length) {
+    }
+
+    private final InternshipRepository internshipRepository;
+
+    // guarded by lock: term -> (internship id -> weighted frequency)
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private final BackgroundIndexWriter writer;
+
+    public InternshipSearchIndex(InternshipRepository internshipRepository) {
+        this.internshipRepository = internshipRepository;
+        this.writer = new BackgroundIndexWriter(InternshipSearchIndex.class, "Search index", "internship-search",
+                this::rebuild);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        writer.scheduleRebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInternshipChanged(InternshipChangedEvent event) {
+        if (event.internshipId() == null) {
+            writer.scheduleRebuild();
+            return;
+        }
+        Long id = event.internshipId();
+        writer.scheduleUpdate(id, () -> {
+            InternshipEntity internship = internshipRepository.findByIdWithCompany(id).orElse(null);
+            lock.writeLock().lock();
+            try {
+                remove(id);
+                if (internship != null) {
+                    add(InternshipCatalog.entry(internship));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public Page search(String query, Integer page, Integer size) {
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<String> words = tokenize(query);
+        if (words.size() > MAX_QUERY_TERMS) {
+            words = words.subList(0, MAX_QUERY_TERMS);
+        }
+        if (words.isEmpty()) {
+            return new Page(query, 0, pageNumber, pageSize, List.of());
+        }
+        writer.beforeQuery();
+
+        List<Hit> ranked;
+        lock.readLock().lock();
+        try {
+            ranked = rank(words);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int from = (int) Math.min((long) pageNumber * pageSize, ranked.size());
+        int to = Math.min(from + pageSize, ranked.size());
+        return new Page(query, ranked.size(), pageNumber, pageSize, List.copyOf(ranked.subList(from, to)));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            m.put("built", writer.isBuilt());
+            m.put("documents", documents.size());
+            m.put("terms", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        writer.putCounters(m);
+        return m;
+    }
+
+    @PreDestroy
+    void stop() {
+        writer.stop();
+    }
+
+    // Waits for the updates queued so far
+    void awaitUpdates() throws InterruptedException {
+        writer.awaitQueued();
+    }
+
+    // Every word must match; a document scores the best of the terms each word reaches
+    private List<Hit> rank(List<String> words) {
+        int n = documents.size();
+        double averageLength = n == 0 ? 0 : (double) totalLength / n;
+        Map<Long, Double> scores = null;
+        for (String word : words) {
+            Map<Long, Double> wordScores = new HashMap<>();
+            int expansions = 0;
+            for (Map.Entry<String, Map<Long, Integer>> term : postings.tailMap(word, true).entrySet()) {
+                if (!term.getKey().startsWith(word) || expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                double boost = term.getKey().length() == word.length() ? 1.0 : PREFIX_DISCOUNT;
+                Map<Long, Integer> docs = term.getValue();
+                double idf = Math.log(1 + (n - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Integer> posting : docs.entrySet()) {
+                    if (scores != null && !scores.containsKey(posting.getKey())) {
+                        continue;
+                    }
+                    int length = documents.get(posting.getKey()).length();
+                    double tf = posting.getValue();
+                    double score = boost * idf * tf * (K1 + 1)
+                            / (tf + K1 * (1 - B + B * length / averageLength));
+                    wordScores.merge(posting.getKey(), score, Math::max);
+                }
+            }
+            if (scores != null) {
+                for (Map.Entry<Long, Double> e : wordScores.entrySet()) {
+                    e.setValue(e.getValue() + scores.get(e.getKey()));
+                }
+            }
+            scores = wordScores;
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        List<Hit> hits = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Double> e : scores.entrySet()) {
+            hits.add(new Hit(documents.get(e.getKey()).entry(), e.getValue()));
+        }
+        // ties go to the newest internship
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(h -> h.internship().id(), Comparator.reverseOrder()));
+        return hits;
+    }
+
+    private void rebuild() {
+        List<InternshipCatalog.Entry> entries = internshipRepository.findAllWithCompany().stream()
+                .map(InternshipCatalog::entry)
+                .toList();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (InternshipCatalog.Entry entry : entries) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // callers hold the write lock
+    private void add(InternshipCatalog.Entry entry) {
+        Map<String, Integer> terms = new HashMap<>();
+        count(terms, entry.title(), TITLE_WEIGHT);
+        count(terms, entry.company(), COMPANY_WEIGHT);
+        count(terms, entry.location(), LOCATION_WEIGHT);
+        count(terms, entry.description(), DESCRIPTION_WEIGHT);
+        int length = 0;
+        for (Map.Entry<String, Integer> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), k -> new HashMap<>()).put(entry.id(), term.getValue());
+            length += term.getValue();
+        }
+        documents.put(entry.id(), new Document(entry, terms, length));
+        totalLength += length;
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms().keySet()) {
+            Map<Long, Integer> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static void count(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    // Lower case, accents folded, split on anything that is not a letter or digit
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SPLIT.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
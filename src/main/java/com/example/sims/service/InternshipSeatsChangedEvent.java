@@ -0,0 +1,6 @@
+package com.example.sims.service;
+
+// Published when an approved application of the internship is deleted, which frees a
+// seat. Status changes reach the facet index through the outbox instead.
+public record InternshipSeatsChangedEvent(Long internshipId) {
+}
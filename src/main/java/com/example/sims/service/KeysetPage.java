@@ -0,0 +1,28 @@
+package com.example.sims.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset listing; nextCursor is null on the last page
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    // Page sizes accepted by the admin listings
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    // rows were fetched with limit + 1 so a full page tells whether another one follows
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
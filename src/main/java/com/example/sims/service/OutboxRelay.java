@@ -0,0 +1,248 @@
+package com.example.sims.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Delivers the application outbox to the ApplicationLifecycleSubscriber beans on one
+// background thread, woken after each commit that appended events and polling as a
+// fallback. Each round is one transaction: lock a batch of pending rows (FOR UPDATE
+// SKIP LOCKED, so several instances share the work without delivering a row twice at
+// once), hand them to every subscriber in id order, mark the delivered ones published.
+// A crash before the commit leaves the rows pending, hence at-least-once delivery.
+//
+// A failing event stops the round so later events are not delivered ahead of it; it is
+// retried on the next poll and, after max-attempts, published anyway and logged so one
+// poison event cannot hold up the rest. Published rows are purged after the retention.
+@Component
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final String SELECT_PENDING = "SELECT id, event_type, application_id, student_id, internship_id, "
+            + "previous_status, status, created_at, attempts FROM application_outbox "
+            + "WHERE published_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String MARK_PUBLISHED = "UPDATE application_outbox SET published_at = ? WHERE id = ?";
+    private static final String MARK_FAILED = "UPDATE application_outbox "
+            + "SET attempts = attempts + 1, last_error = ?, published_at = ? WHERE id = ?";
+    private static final String PURGE = "DELETE FROM application_outbox WHERE published_at < ? LIMIT ?";
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final int PURGE_CHUNK = 10_000;
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private record Pending(ApplicationLifecycleEvent event, int attempts) {
+    }
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${outbox.poll-interval-ms:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    // subscribers run outside the relay's transaction, so their own database work can
+    // neither hold the outbox locks longer nor roll back the bookkeeping
+    private final TransactionTemplate suspended;
+    private final ObjectProvider<ApplicationLifecycleSubscriber> subscribers;
+
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong redelivered = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private volatile long lastPurge;
+
+    private ScheduledExecutorService relay;
+
+    public OutboxRelay(JdbcTemplate jdbc, PlatformTransactionManager transactionManager,
+            ObjectProvider<ApplicationLifecycleSubscriber> subscribers) {
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.suspended = new TransactionTemplate(transactionManager);
+        this.suspended.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.subscribers = subscribers;
+    }
+
+    @PostConstruct
+    void start() {
+        relay = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "outbox-relay");
+            t.setDaemon(true);
+            return t;
+        });
+        relay.scheduleWithFixedDelay(this::drain, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        relay.shutdownNow();
+    }
+
+    // Called after a commit that appended events; wakes coalesce into one drain
+    public void wake() {
+        if (!wakeQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            relay.execute(() -> {
+                wakeQueued.set(false);
+                drain();
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down, the rows stay pending for the next start
+            wakeQueued.set(false);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        Long pending = jdbc.queryForObject("SELECT COUNT(*) FROM application_outbox WHERE published_at IS NULL",
+                Long.class);
+        List<Timestamp> oldest = jdbc.queryForList("SELECT created_at FROM application_outbox "
+                + "WHERE published_at IS NULL ORDER BY id LIMIT 1", Timestamp.class);
+        m.put("pending", pending);
+        // how far behind the relay is right now
+        m.put("lagMillis", oldest.isEmpty() ? 0
+                : Math.max(0, Duration.between(oldest.get(0).toLocalDateTime(), LocalDateTime.now()).toMillis()));
+        m.put("lastLagMillis", lastLagMillis.get());
+        m.put("maxLagMillis", maxLagMillis.get());
+        m.put("published", published.get());
+        m.put("redelivered", redelivered.get());
+        m.put("failures", failures.get());
+        m.put("deadLettered", deadLettered.get());
+        return m;
+    }
+
+    void drain() {
+        try {
+            while (relayBatch()) {
+                // a full batch, more may be waiting
+            }
+            purgeIfDue();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, retrying in {} ms", pollIntervalMillis, e);
+        }
+    }
+
+    // Returns true when the batch was full and delivered completely
+    boolean relayBatch() {
+        return Boolean.TRUE.equals(transactions.execute(status -> {
+            List<Pending> batch = jdbc.query(SELECT_PENDING, (rs, rowNum) -> pending(rs), batchSize);
+            List<ApplicationLifecycleSubscriber> targets = subscribers.orderedStream().toList();
+            List<Object[]> delivered = new ArrayList<>(batch.size());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            boolean complete = true;
+            for (Pending pending : batch) {
+                try {
+                    suspended.executeWithoutResult(s -> {
+                        for (ApplicationLifecycleSubscriber subscriber : targets) {
+                            subscriber.handle(pending.event());
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    if (!failed(pending, e, now)) {
+                        complete = false;
+                        break;
+                    }
+                    continue;
+                }
+                delivered.add(new Object[] { now, pending.event().id() });
+                recordLag(pending, now);
+            }
+            if (!delivered.isEmpty()) {
+                jdbc.batchUpdate(MARK_PUBLISHED, delivered);
+                published.addAndGet(delivered.size());
+            }
+            return complete && batch.size() == batchSize;
+        }));
+    }
+
+    // Records the failure; returns true when the event has used up its attempts and is
+    // published anyway
+    private boolean failed(Pending pending, RuntimeException cause, Timestamp now) {
+        failures.incrementAndGet();
+        ApplicationLifecycleEvent event = pending.event();
+        boolean dead = pending.attempts() + 1 >= maxAttempts;
+        String error = String.valueOf(cause);
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        jdbc.update(MARK_FAILED, error, dead ? now : null, event.id());
+        if (dead) {
+            deadLettered.incrementAndGet();
+            log.error("Giving up on outbox event {} ({} of application {}) after {} attempts", event.id(),
+                    event.type(), event.applicationId(), pending.attempts() + 1, cause);
+        } else {
+            log.warn("Outbox event {} failed, attempt {} of {}", event.id(), pending.attempts() + 1, maxAttempts,
+                    cause);
+        }
+        return dead;
+    }
+
+    private void recordLag(Pending pending, Timestamp now) {
+        if (pending.attempts() > 0) {
+            redelivered.incrementAndGet();
+        }
+        long lag = Math.max(0, Duration.between(pending.event().occurredAt(), now.toLocalDateTime()).toMillis());
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+    }
+
+    private void purgeIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge < PURGE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPurge = now;
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusHours(retentionHours));
+        int deleted;
+        do {
+            deleted = jdbc.update(PURGE, cutoff, PURGE_CHUNK);
+        } while (deleted == PURGE_CHUNK);
+    }
+
+    private static Pending pending(ResultSet rs) throws SQLException {
+        String previous = rs.getString("previous_status");
+        ApplicationLifecycleEvent event = new ApplicationLifecycleEvent(rs.getLong("id"),
+                ApplicationLifecycleEvent.Type.valueOf(rs.getString("event_type")), rs.getLong("application_id"),
+                rs.getLong("student_id"), rs.getLong("internship_id"),
+                previous == null ? null : ApplicationStatus.valueOf(previous),
+                ApplicationStatus.valueOf(rs.getString("status")), rs.getTimestamp("created_at").toLocalDateTime());
+        return new Pending(event, rs.getInt("attempts"));
+    }
+}
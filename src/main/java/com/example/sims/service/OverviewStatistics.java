@@ -0,0 +1,210 @@
+package com.example.sims.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+import com.example.sims.repo.ApplicationRepository;
+import com.example.sims.repo.CompanyRepository;
+import com.example.sims.repo.InternshipRepository;
+import com.example.sims.repo.UserRepository;
+
+// Admin overview counters kept in memory and adjusted by the services that write
+// users, companies, internships and applications, so reading them loads no rows.
+// Deletes that cascade in the database (users, internships) cannot be tracked
+// row by row and make the next read recount instead; a periodic reconcile against
+// COUNT queries also repairs any drift from writes that raced a previous one.
+@Component
+public class OverviewStatistics {
+    private static final Logger log = LoggerFactory.getLogger(OverviewStatistics.class);
+
+    // students register with USER by default, STUDENT is the explicit choice
+    static final Set<String> STUDENT_ROLES = Set.of("USER", "STUDENT");
+
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final InternshipRepository internshipRepository;
+    private final ApplicationRepository applicationRepository;
+
+    private final AtomicLong students = new AtomicLong();
+    private final AtomicLong activeStudents = new AtomicLong();
+    private final AtomicLong companies = new AtomicLong();
+    private final AtomicLong internships = new AtomicLong();
+    private final AtomicLong applications = new AtomicLong();
+    private final AtomicLong pendingApplications = new AtomicLong();
+    private final AtomicLong reconciliations = new AtomicLong();
+    private final AtomicLong driftCorrections = new AtomicLong();
+    private volatile boolean initialized;
+
+    public OverviewStatistics(UserRepository userRepository, CompanyRepository companyRepository,
+            InternshipRepository internshipRepository, ApplicationRepository applicationRepository) {
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.internshipRepository = internshipRepository;
+        this.applicationRepository = applicationRepository;
+    }
+
+    public long getStudents() {
+        ensureInitialized();
+        return students.get();
+    }
+
+    public long getActiveStudents() {
+        ensureInitialized();
+        return activeStudents.get();
+    }
+
+    public long getCompanies() {
+        ensureInitialized();
+        return companies.get();
+    }
+
+    public long getInternships() {
+        ensureInitialized();
+        return internships.get();
+    }
+
+    public long getApplications() {
+        ensureInitialized();
+        return applications.get();
+    }
+
+    public long getPendingApplications() {
+        ensureInitialized();
+        return pendingApplications.get();
+    }
+
+    // The counters shown on the admin overview cards
+    public Map<String, Long> snapshot() {
+        ensureInitialized();
+        Map<String, Long> m = new LinkedHashMap<>();
+        m.put("totalStudents", activeStudents.get());
+        m.put("totalInternships", internships.get());
+        m.put("totalCompanies", companies.get());
+        m.put("pendingApplications", pendingApplications.get());
+        return m;
+    }
+
+    public void userAdded(String role, Boolean active) {
+        afterCommit(() -> adjustUser(role, active, 1));
+    }
+
+    public void userChanged(String oldRole, Boolean oldActive, String newRole, Boolean newActive) {
+        afterCommit(() -> {
+            adjustUser(oldRole, oldActive, -1);
+            adjustUser(newRole, newActive, 1);
+        });
+    }
+
+    public void companyAdded() {
+        afterCommit(companies::incrementAndGet);
+    }
+
+    public void internshipAdded() {
+        afterCommit(internships::incrementAndGet);
+    }
+
+    public void applicationAdded(ApplicationStatus status) {
+        afterCommit(() -> adjustApplication(status, 1));
+    }
+
+    public void applicationStatusChanged(ApplicationStatus oldStatus, ApplicationStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        afterCommit(() -> {
+            if (oldStatus == ApplicationStatus.PENDING)
+                pendingApplications.decrementAndGet();
+            if (newStatus == ApplicationStatus.PENDING)
+                pendingApplications.incrementAndGet();
+        });
+    }
+
+    public void applicationRemoved(ApplicationStatus status) {
+        afterCommit(() -> adjustApplication(status, -1));
+    }
+
+    // For deletes whose cascades reach other counted tables; the next read recounts
+    public void cascadeDeleted() {
+        afterCommit(() -> initialized = false);
+    }
+
+    @Scheduled(initialDelayString = "${overview.reconcile-interval-ms:300000}",
+            fixedDelayString = "${overview.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        long[] counted = {
+                userRepository.countByRoleIn(STUDENT_ROLES),
+                userRepository.countByRoleInAndActiveTrue(STUDENT_ROLES),
+                companyRepository.count(),
+                internshipRepository.count(),
+                applicationRepository.count(),
+                applicationRepository.countByStatus(ApplicationStatus.PENDING) };
+        AtomicLong[] counters = { students, activeStudents, companies, internships, applications,
+                pendingApplications };
+        boolean drifted = false;
+        for (int i = 0; i < counters.length; i++) {
+            if (counters[i].getAndSet(counted[i]) != counted[i]) {
+                drifted = true;
+            }
+        }
+        if (drifted && reconciliations.get() > 0) {
+            driftCorrections.incrementAndGet();
+            log.info("Overview counters corrected by reconcile");
+        }
+        reconciliations.incrementAndGet();
+        initialized = true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("initialized", initialized);
+        m.put("reconciliations", reconciliations.get());
+        m.put("driftCorrections", driftCorrections.get());
+        return m;
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            reconcile();
+        }
+    }
+
+    private void adjustUser(String role, Boolean active, int delta) {
+        if (role == null || !STUDENT_ROLES.contains(role)) {
+            return;
+        }
+        students.addAndGet(delta);
+        if (Boolean.TRUE.equals(active))
+            activeStudents.addAndGet(delta);
+    }
+
+    private void adjustApplication(ApplicationStatus status, int delta) {
+        applications.addAndGet(delta);
+        if (status == ApplicationStatus.PENDING)
+            pendingApplications.addAndGet(delta);
+    }
+
+    // Counters only move once the write is durable; outside a transaction the
+    // repository call has already committed.
+    private void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.sims.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Position after the last row of a keyset page: the sort timestamp (null when a
+// listing is ordered by id alone) and the id that breaks ties. Clients get it as
+// an opaque url-safe token and send it back unchanged to fetch the next page.
+public record PageCursor(LocalDateTime at, Long id) {
+
+    public String encode() {
+        String raw = (at != null ? at.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // null or blank means the first page
+    public static PageCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime at = sep == 0 ? null : LocalDateTime.parse(raw.substring(0, sep));
+            return new PageCursor(at, Long.valueOf(raw.substring(sep + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
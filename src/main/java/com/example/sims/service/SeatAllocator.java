@@ -0,0 +1,172 @@
+package com.example.sims.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.sims.dto.ApplicationStatusRow;
+import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+import com.example.sims.repo.ApplicationRepository;
+import com.example.sims.repo.InternshipRepository;
+
+// Moves applications between statuses and keeps internships.seats_taken in step, inside
+// the caller's transaction. Nothing is read and written back: the status changes only if
+// it is still the one the caller loaded, and a seat is taken only while one is free, each
+// as a single conditional UPDATE. A losing approval throws and its status change rolls
+// back with it. The seat update comes last, so the hot internship row stays locked only
+// until the commit that follows.
+@Component
+public class SeatAllocator {
+    private static final String TAKE_SEATS = "UPDATE internships SET seats_taken = seats_taken + ? "
+            + "WHERE id = ? AND seats_taken + ? <= seats";
+    private static final String RELEASE_SEATS = "UPDATE internships SET seats_taken = GREATEST(seats_taken - ?, 0) "
+            + "WHERE id = ?";
+
+    private final ApplicationRepository applicationRepository;
+    private final InternshipRepository internshipRepository;
+    private final JdbcTemplate jdbc;
+
+    private final AtomicLong seatsTaken = new AtomicLong();
+    private final AtomicLong seatsReleased = new AtomicLong();
+    private final AtomicLong full = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    public SeatAllocator(ApplicationRepository applicationRepository, InternshipRepository internshipRepository,
+            JdbcTemplate jdbc) {
+        this.applicationRepository = applicationRepository;
+        this.internshipRepository = internshipRepository;
+        this.jdbc = jdbc;
+    }
+
+    // Detaches the loaded application and sets the new status on it. Throws
+    // SeatsUnavailableException when approving into a full internship, and
+    // IllegalStateException when someone else changed the status first.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changeStatus(ApplicationEntity application, ApplicationStatus status) {
+        ApplicationStatus previous = application.getStatus();
+        if (previous == status) {
+            return;
+        }
+        if (applicationRepository.updateStatusIf(application.getId(), previous, status) == 0) {
+            conflicts.incrementAndGet();
+            throw new IllegalStateException("The application was just updated by someone else, please reload");
+        }
+        Long internshipId = application.getInternship().getId();
+        if (status == ApplicationStatus.APPROVED) {
+            if (internshipRepository.takeSeat(internshipId) == 0) {
+                full.incrementAndGet();
+                throw new SeatsUnavailableException(internshipId);
+            }
+            seatsTaken.incrementAndGet();
+        } else if (previous == ApplicationStatus.APPROVED) {
+            release(internshipId);
+        }
+        application.setStatus(status);
+    }
+
+    // Set-based changeStatus for many applications: one compare-and-set UPDATE per previous
+    // status, then one JDBC batch moving the seat count of each internship involved. All or
+    // nothing, with the same exceptions as changeStatus. Returns the rows that changed.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<ApplicationStatusRow> changeStatuses(Collection<ApplicationStatusRow> rows, ApplicationStatus status) {
+        Map<ApplicationStatus, List<Long>> byPrevious = new EnumMap<>(ApplicationStatus.class);
+        // sorted, so concurrent bulk changes lock internship rows in the same order
+        Map<Long, Integer> seats = new TreeMap<>();
+        List<ApplicationStatusRow> changed = new ArrayList<>();
+        for (ApplicationStatusRow row : rows) {
+            if (row.status() == status) {
+                continue;
+            }
+            byPrevious.computeIfAbsent(row.status(), s -> new ArrayList<>()).add(row.id());
+            if (status == ApplicationStatus.APPROVED || row.status() == ApplicationStatus.APPROVED) {
+                seats.merge(row.internshipId(), 1, Integer::sum);
+            }
+            changed.add(row);
+        }
+        for (Map.Entry<ApplicationStatus, List<Long>> group : byPrevious.entrySet()) {
+            List<Long> ids = group.getValue();
+            if (applicationRepository.updateStatusesIf(ids, group.getKey(), status) != ids.size()) {
+                conflicts.incrementAndGet();
+                throw new IllegalStateException("Some applications were just updated by someone else, please reload");
+            }
+        }
+        if (status == ApplicationStatus.APPROVED) {
+            takeSeats(seats);
+        } else if (!seats.isEmpty()) {
+            releaseSeats(seats);
+        }
+        return changed;
+    }
+
+    // Sets the number of seats of an existing internship. Throws SeatsInUseException when
+    // approved applications already hold more seats than that; the caller's other changes
+    // roll back with it.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void resize(Long internshipId, Integer seats) {
+        checkSeats(seats);
+        if (internshipRepository.resizeSeats(internshipId, seats) == 0) {
+            throw new SeatsInUseException(internshipId);
+        }
+    }
+
+    // For new internships, which hold no seats yet
+    static void checkSeats(Integer seats) {
+        if (seats == null || seats < 0) {
+            throw new IllegalArgumentException("Seats must be zero or more");
+        }
+    }
+
+    // For an approved application about to be deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void removed(ApplicationEntity application) {
+        if (application.getStatus() == ApplicationStatus.APPROVED) {
+            release(application.getInternship().getId());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("seatsTaken", seatsTaken.get());
+        m.put("seatsReleased", seatsReleased.get());
+        m.put("rejectedFull", full.get());
+        m.put("statusConflicts", conflicts.get());
+        return m;
+    }
+
+    private void takeSeats(Map<Long, Integer> seats) {
+        List<Object[]> args = new ArrayList<>(seats.size());
+        seats.forEach((internshipId, count) -> args.add(new Object[] { count, internshipId, count }));
+        int[] updated = jdbc.batchUpdate(TAKE_SEATS, args);
+        int i = 0;
+        for (Map.Entry<Long, Integer> internship : seats.entrySet()) {
+            if (updated[i++] == 0) {
+                full.incrementAndGet();
+                throw new SeatsUnavailableException(internship.getKey());
+            }
+            seatsTaken.addAndGet(internship.getValue());
+        }
+    }
+
+    private void releaseSeats(Map<Long, Integer> seats) {
+        List<Object[]> args = new ArrayList<>(seats.size());
+        seats.forEach((internshipId, count) -> args.add(new Object[] { count, internshipId }));
+        jdbc.batchUpdate(RELEASE_SEATS, args);
+        seats.values().forEach(seatsReleased::addAndGet);
+    }
+
+    private void release(Long internshipId) {
+        internshipRepository.releaseSeat(internshipId);
+        seatsReleased.incrementAndGet();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sims.service;
+
+// Thrown when an internship's seats would drop below the seats its approved applications
+// already hold; the transaction that tried to change them rolls back.
+public class SeatsInUseException extends RuntimeException {
+    private final Long internshipId;
+
+    public SeatsInUseException(Long internshipId) {
+        super("More applications are already approved than that number of seats");
+        this.internshipId = internshipId;
+    }
+
+    public Long getInternshipId() {
+        return internshipId;
+    }
+}
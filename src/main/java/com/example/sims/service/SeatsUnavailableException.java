@@ -0,0 +1,16 @@
+package com.example.sims.service;
+
+// Thrown when an approval finds every seat of the internship taken; the transaction that
+// tried to approve rolls back.
+public class SeatsUnavailableException extends RuntimeException {
+    private final Long internshipId;
+
+    public SeatsUnavailableException(Long internshipId) {
+        super("No seats left for this internship");
+        this.internshipId = internshipId;
+    }
+
+    public Long getInternshipId() {
+        return internshipId;
+    }
+}
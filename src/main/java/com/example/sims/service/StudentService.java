@@ -1,6 +1,9 @@
 
 package com.example.sims.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.io.File;
@@ -8,10 +11,13 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.dto.StudentDashboardCounts;
 import com.example.sims.entity.ApplicationEntity;
 import com.example.sims.entity.StudentProfileEntity;
 import com.example.sims.entity.InternshipEntity;
@@ -21,58 +27,158 @@ import com.example.sims.repo.InternshipRepository;
 
 @Service
 public class StudentService {
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    // TEXT column
+    private static final int MAX_COVER_LETTER_BYTES = 65_535;
+
+    // created is false when an earlier submission already stored the application
+    public record Submission(ApplicationEntity application, boolean created) {
+    }
+
     private final StudentProfileRepository studentProfileRepository;
     private final InternshipRepository internshipRepository;
     private final ApplicationRepository applicationRepository;
+    private final IdentityCache identityCache;
+    private final OverviewStatistics overviewStatistics;
+    private final ChangeVersions changeVersions;
+    private final ApplicationEventPublisher events;
+    private final SeatAllocator seatAllocator;
+    private final ApplicationOutbox applicationOutbox;
 
     public StudentService(StudentProfileRepository studentProfileRepository,
                           InternshipRepository internshipRepository,
-                          ApplicationRepository applicationRepository) {
+                          ApplicationRepository applicationRepository,
+                          IdentityCache identityCache,
+                          OverviewStatistics overviewStatistics,
+                          ChangeVersions changeVersions,
+                          ApplicationEventPublisher events,
+                          SeatAllocator seatAllocator,
+                          ApplicationOutbox applicationOutbox) {
         this.studentProfileRepository = studentProfileRepository;
         this.internshipRepository = internshipRepository;
         this.applicationRepository = applicationRepository;
+        this.identityCache = identityCache;
+        this.overviewStatistics = overviewStatistics;
+        this.changeVersions = changeVersions;
+        this.events = events;
+        this.seatAllocator = seatAllocator;
+        this.applicationOutbox = applicationOutbox;
     }
 
     public Optional<StudentProfileEntity> getStudentByUserId(Long userId) {
-        return studentProfileRepository.findByUserId(userId);
+        return identityCache.findStudentByUserId(userId);
     }
 
+    public Optional<StudentProfileEntity> getStudentById(Long studentId) {
+        return identityCache.findStudentById(studentId);
+    }
+
+    // Lazy reference for associations when only the id is known
+    public StudentProfileEntity getStudentReference(Long studentId) {
+        return studentProfileRepository.getReferenceById(studentId);
+    }
+
+    @Transactional(readOnly = true)
     public List<InternshipEntity> getAllInternships() {
         return internshipRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public List<ApplicationEntity> getStudentApplications(Long studentId) {
         return applicationRepository.findByStudentId(studentId);
     }
 
+    @Transactional(readOnly = true)
     public Optional<ApplicationEntity> getStudentApplicationForInternship(Long studentId, Long internshipId) {
         return applicationRepository.findByStudentIdAndInternshipId(studentId, internshipId);
     }
 
+    @Transactional(readOnly = true)
+    public StudentDashboardCounts getDashboardCounts(Long studentId) {
+        return applicationRepository.countDashboard(studentId, LocalDate.now());
+    }
+
+    @Transactional(readOnly = true)
     public Long getTotalApplications(Long studentId) {
         return applicationRepository.countByStudentId(studentId);
     }
 
+    @Transactional(readOnly = true)
     public Long getPendingApplications(Long studentId) {
         return applicationRepository.countPendingByStudentId(studentId);
     }
 
+    // Edits a freshly loaded row, never a cached copy; the cache entry goes after the commit
     @Transactional
-    public StudentProfileEntity updateStudentProfile(StudentProfileEntity studentProfile) {
-        return studentProfileRepository.save(studentProfile);
+    public StudentProfileEntity updateStudentProfile(Long studentId, String fullName, String major, Integer year) {
+        StudentProfileEntity student = studentProfileRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+        student.setFullName(fullName);
+        student.setMajor(major);
+        student.setYear(year);
+        return saveStudent(student);
     }
 
+    @Transactional
+    public StudentProfileEntity updateCvFile(Long studentId, String cvFile) {
+        StudentProfileEntity student = studentProfileRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+        student.setCvFile(cvFile);
+        return saveStudent(student);
+    }
+
+    private StudentProfileEntity saveStudent(StudentProfileEntity student) {
+        StudentProfileEntity saved = studentProfileRepository.save(student);
+        changeVersions.changed(ChangeVersions.STUDENTS);
+        identityCache.evictStudent(student.getId());
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<InternshipEntity> getInternshipById(Long internshipId) {
         return internshipRepository.findById(internshipId);
     }
 
+    @Transactional(readOnly = true)
     public Optional<ApplicationEntity> getApplicationById(Long applicationId) {
         return applicationRepository.findById(applicationId);
     }
 
+    // Applies at most once. A repeated submission, with the same idempotency key or for the
+    // same internship, returns the application stored the first time: one conditional INSERT
+    // that the unique keys settle, then one read of the stored row. A key already used for
+    // another internship is rejected with IdempotencyKeyReusedException.
     @Transactional
-    public ApplicationEntity createApplication(ApplicationEntity application) {
-        return applicationRepository.save(application);
+    public Submission submitApplication(Long studentId, Long internshipId, String coverLetter,
+            String idempotencyKey) {
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.trim();
+        // checked here so the form gets a message instead of a database error
+        if (key != null && key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key is too long");
+        }
+        if (coverLetter != null && coverLetter.getBytes(StandardCharsets.UTF_8).length > MAX_COVER_LETTER_BYTES) {
+            throw new IllegalArgumentException("Cover letter is too long");
+        }
+        applicationRepository.insertIfAbsent(studentId, internshipId, coverLetter, key, LocalDateTime.now());
+        long insertedId = applicationRepository.lastInsertId();
+        Optional<ApplicationEntity> stored = key != null
+                ? applicationRepository.findByStudentIdAndIdempotencyKey(studentId, key)
+                : Optional.empty();
+        if (stored.isPresent() && !stored.get().getInternship().getId().equals(internshipId)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        if (stored.isEmpty()) {
+            stored = applicationRepository.findByStudentIdAndInternshipId(studentId, internshipId);
+        }
+        ApplicationEntity application = stored
+                .orElseThrow(() -> new IllegalArgumentException("Internship not found"));
+        boolean created = application.getId() == insertedId;
+        if (created) {
+            overviewStatistics.applicationAdded(application.getStatus());
+            changeVersions.changed(ChangeVersions.applicationKeys(application));
+            applicationOutbox.append(ApplicationLifecycleEvent.submitted(application));
+        }
+        return new Submission(application, created);
     }
 
     @Transactional
@@ -80,15 +186,31 @@ public class StudentService {
         Optional<ApplicationEntity> appOpt = applicationRepository.findById(applicationId);
         if (appOpt.isPresent()) {
             ApplicationEntity application = appOpt.get();
-            application.setStatus(status);
-            return applicationRepository.save(application);
+            ApplicationEntity.ApplicationStatus previous = application.getStatus();
+            // conditional updates of the status and the seat count, see SeatAllocator
+            seatAllocator.changeStatus(application, status);
+            overviewStatistics.applicationStatusChanged(previous, status);
+            changeVersions.changed(ChangeVersions.applicationKeys(application));
+            if (previous != status) {
+                // subscribers (the facet index's free seats, ...) follow from the outbox
+                applicationOutbox.append(ApplicationLifecycleEvent.statusChanged(application, previous));
+            }
+            return application;
         }
         return null;
     }
 
     @Transactional
     public void deleteApplication(Long applicationId) {
-        applicationRepository.deleteById(applicationId);
+        applicationRepository.findById(applicationId).ifPresent(application -> {
+            seatAllocator.removed(application);
+            applicationRepository.delete(application);
+            overviewStatistics.applicationRemoved(application.getStatus());
+            changeVersions.changed(ChangeVersions.applicationKeys(application));
+            if (application.getStatus() == ApplicationEntity.ApplicationStatus.APPROVED) {
+                events.publishEvent(new InternshipSeatsChangedEvent(application.getInternship().getId()));
+            }
+        });
     }
 
     public String uploadCvFile(MultipartFile file, Long studentId) throws Exception {
@@ -0,0 +1,20 @@
+-- Application lifecycle events, appended in the same transaction as the change they
+-- describe and relayed to in-process subscribers afterwards (OutboxRelay). A row is
+-- pending while published_at is NULL; failed deliveries count attempts and keep the
+-- last error. No foreign keys: an event outlives the application it describes.
+CREATE TABLE application_outbox (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    event_type VARCHAR(30) NOT NULL,
+    application_id BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    internship_id BIGINT NOT NULL,
+    previous_status VARCHAR(20) NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    published_at DATETIME(6) NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500) NULL
+);
+
+-- pending rows in id order for the relay, published rows by age for the purge
+CREATE INDEX idx_application_outbox_published ON application_outbox (published_at, id);
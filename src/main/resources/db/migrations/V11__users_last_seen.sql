@@ -0,0 +1,3 @@
+-- Time of the user's last authenticated request, written behind in batches by
+-- PresenceTracker's flush; NULL until the user is first seen after this migration.
+ALTER TABLE users ADD COLUMN last_seen_at DATETIME(3) NULL;
@@ -0,0 +1,7 @@
+-- Keyset pagination of the admin listings: newest first, id breaks ties.
+-- Each index matches the ORDER BY and the "after cursor" range of one listing.
+
+CREATE INDEX idx_users_created_at_id ON users (created_at, id);
+CREATE INDEX idx_users_role_created_at_id ON users (role, created_at, id);
+CREATE INDEX idx_internships_created_at_id ON internships (created_at, id);
+CREATE INDEX idx_applications_applied_at_id ON applications (applied_at, id);
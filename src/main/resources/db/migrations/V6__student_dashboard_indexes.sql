@@ -0,0 +1,7 @@
+-- Student dashboard counts (ApplicationRepository.countDashboard).
+-- Open internships are an index range on end_date instead of a table scan, and the
+-- per-student status counts read only the index. The anti-join "open and not applied
+-- to" probes the existing UNIQUE (student_id, internship_id) index.
+
+CREATE INDEX idx_internships_end_date ON internships (end_date);
+CREATE INDEX idx_applications_student_status ON applications (student_id, status);
@@ -0,0 +1,15 @@
+-- Supporting indexes for the repository queries that V1-V6 left to table scans.
+-- QueryPlanTests runs EXPLAIN for every repository query against these.
+
+-- countByRoleIn / countByRoleInAndActiveTrue (admin overview reconcile)
+CREATE INDEX idx_users_role_active ON users (role, active);
+
+-- findByCompanyIdOrderByCreatedAtDesc and the company side of every per-company join
+CREATE INDEX idx_internships_company_created_at ON internships (company_id, created_at);
+
+-- Applications of an internship by status: per-company pending counts, seats taken,
+-- and the internship -> applications step of the per-company listings
+CREATE INDEX idx_applications_internship_status ON applications (internship_id, status, applied_at);
+
+-- Global status counts and approved-per-internship grouping
+CREATE INDEX idx_applications_status_internship ON applications (status, internship_id);
@@ -0,0 +1,7 @@
+-- Approved applications per internship, kept by conditional single-row updates so that
+-- concurrent approvals can never take more seats than the internship has.
+ALTER TABLE internships ADD COLUMN seats_taken INT NOT NULL DEFAULT 0;
+
+UPDATE internships i
+SET seats_taken = (SELECT COUNT(*) FROM applications a
+                   WHERE a.internship_id = i.id AND a.status = 'APPROVED');
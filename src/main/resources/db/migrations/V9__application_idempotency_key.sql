@@ -0,0 +1,7 @@
+-- Optional client key of an application submission. A retried or double-clicked submit
+-- carries the same key and finds the stored application instead of creating another.
+-- NULLs do not collide, so submissions without a key are limited only by
+-- UNIQUE (student_id, internship_id).
+ALTER TABLE applications ADD COLUMN idempotency_key VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX uk_applications_student_idempotency_key ON applications (student_id, idempotency_key);
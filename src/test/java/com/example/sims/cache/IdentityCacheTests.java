@@ -0,0 +1,102 @@
+package com.example.sims.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.sims.entity.StudentProfileEntity;
+import com.example.sims.entity.UserEntity;
+import com.example.sims.repo.CompanyRepository;
+import com.example.sims.repo.StudentProfileRepository;
+import com.example.sims.repo.UserRepository;
+
+class IdentityCacheTests {
+
+	private final UserRepository users = mock(UserRepository.class);
+	private final StudentProfileRepository students = mock(StudentProfileRepository.class);
+	private final IdentityCache cache = new IdentityCache(users, students, mock(CompanyRepository.class));
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(cache, "maxSize", 100);
+		cache.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void callersGetTheirOwnCopies() {
+		when(students.findById(1L)).thenReturn(Optional.of(student(1L, user(7L, "Ann"), "Ann Lee")));
+
+		StudentProfileEntity first = cache.findStudentById(1L).orElseThrow();
+		first.setFullName("half-applied edit");
+		first.getUser().setActive(false);
+		StudentProfileEntity second = cache.findStudentById(1L).orElseThrow();
+
+		assertNotSame(first, second);
+		assertEquals("Ann Lee", second.getFullName());
+		assertEquals(true, second.getUser().getActive());
+		verify(students, times(1)).findById(1L);
+	}
+
+	@Test
+	void evictionInsideATransactionIsRepeatedAfterTheCommit() {
+		when(users.findById(7L)).thenReturn(Optional.of(user(7L, "old")));
+		cache.findUserById(7L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.evictUser(7L);
+		// a concurrent request reads the row before the commit and caches it again
+		assertEquals("old", cache.findUserById(7L).orElseThrow().getUsername());
+
+		when(users.findById(7L)).thenReturn(Optional.of(user(7L, "new")));
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+
+		assertEquals("new", cache.findUserById(7L).orElseThrow().getUsername());
+	}
+
+	@Test
+	void aLookupRacingAnEvictionIsNotCached() {
+		when(users.findById(7L)).thenAnswer(invocation -> {
+			// the write commits while this read is in flight
+			cache.evictUser(7L);
+			return Optional.of(user(7L, "old"));
+		});
+		cache.findUserById(7L);
+
+		when(users.findById(7L)).thenReturn(Optional.of(user(7L, "new")));
+		assertEquals("new", cache.findUserById(7L).orElseThrow().getUsername());
+	}
+
+	private static UserEntity user(Long id, String username) {
+		UserEntity user = new UserEntity(username.toLowerCase() + "@example.com", username, "hash", "STUDENT");
+		user.setId(id);
+		user.setActive(true);
+		return user;
+	}
+
+	private static StudentProfileEntity student(Long id, UserEntity user, String fullName) {
+		StudentProfileEntity student = new StudentProfileEntity(user, "STU-00001", fullName);
+		student.setId(id);
+		return student;
+	}
+}
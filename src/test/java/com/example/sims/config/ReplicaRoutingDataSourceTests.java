@@ -0,0 +1,201 @@
+package com.example.sims.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.example.sims.service.ChangeVersions;
+
+// Two in-memory databases stand in for the primary and a replica; each holds a marker
+// row naming itself, so a query shows where it was routed.
+class ReplicaRoutingDataSourceTests {
+
+	private static final String SERVICE_READ = "com.example.sims.service.StudentService.getStudentApplications";
+	private static final long READ_YOUR_WRITES_MILLIS = 300;
+
+	private final FlakyDataSource replica = new FlakyDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+	private final DriverManagerDataSource primary = new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+	private DataSourceTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		mark(primary, "primary");
+		mark(replica, "replica");
+		new JdbcTemplate(primary).execute("create table if not exists notes (body varchar(50))");
+
+		routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), "com.example.sims.service.",
+				READ_YOUR_WRITES_MILLIS);
+		routing.afterPropertiesSet();
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		jdbc = new JdbcTemplate(dataSource);
+		transactionManager = new DataSourceTransactionManager(dataSource);
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void readOnlyServiceTransactionsGoToTheReplica() {
+		assertEquals("replica", read(SERVICE_READ));
+		assertEquals(1L, routing.stats().get("replicaReads"));
+	}
+
+	@Test
+	void writesGoToThePrimary() {
+		assertEquals("primary", write("hello"));
+	}
+
+	@Test
+	void readsOutsideServiceTransactionsStayOnThePrimary() {
+		assertEquals("primary", read("com.example.sims.security.CustomUserDetailsService.loadUserByUsername"));
+		assertEquals("primary", jdbc.queryForObject("select name from marker", String.class));
+	}
+
+	@Test
+	void readsFollowTheUsersOwnWritesForAWhile() throws InterruptedException {
+		authenticate("student@example.com");
+		assertEquals("replica", read(SERVICE_READ));
+
+		write("applied");
+		assertEquals("primary", read(SERVICE_READ));
+
+		// someone else is not held back by that write
+		authenticate("other@example.com");
+		assertEquals("replica", read(SERVICE_READ));
+
+		authenticate("student@example.com");
+		Thread.sleep(READ_YOUR_WRITES_MILLIS + 100);
+		assertEquals("replica", read(SERVICE_READ));
+	}
+
+	@Test
+	void rolledBackWritesDoNotPinReadsToThePrimary() {
+		authenticate("student@example.com");
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			jdbc.update("insert into notes (body) values ('discarded')");
+			status.setRollbackOnly();
+		});
+		assertEquals("replica", read(SERVICE_READ));
+	}
+
+	@Test
+	void listingsStampedWithARecentChangeReadThePrimary() throws InterruptedException {
+		ChangeVersions changeVersions = new ChangeVersions();
+		String approved = ChangeVersions.studentApplications(7L);
+		Thread.sleep(READ_YOUR_WRITES_MILLIS + 100);
+
+		// a company approved the student's application: the student did not write, but the
+		// listing revalidated with the new ETag must not come from a lagging replica
+		authenticate("student@example.com");
+		startRequest();
+		String before = changeVersions.stamp(approved, ChangeVersions.INTERNSHIPS).etag();
+		assertEquals("replica", read(SERVICE_READ));
+
+		changeVersions.changed(approved);
+		startRequest();
+		String after = changeVersions.stamp(approved, ChangeVersions.INTERNSHIPS).etag();
+		assertNotEquals(before, after);
+		assertEquals("primary", read(SERVICE_READ));
+
+		// a request stamping keys that did not change is not held back
+		startRequest();
+		changeVersions.stamp(ChangeVersions.studentApplications(8L), ChangeVersions.INTERNSHIPS);
+		assertEquals("replica", read(SERVICE_READ));
+
+		// nor is anything once the replica has had the window to catch up
+		Thread.sleep(READ_YOUR_WRITES_MILLIS + 100);
+		startRequest();
+		assertEquals(after, changeVersions.stamp(approved, ChangeVersions.INTERNSHIPS).etag());
+		assertEquals("replica", read(SERVICE_READ));
+	}
+
+	@Test
+	void unavailableReplicaFallsBackToThePrimaryUntilItRecovers() {
+		replica.down = true;
+		assertEquals("primary", read(SERVICE_READ));
+		assertEquals(1L, routing.stats().get("fallbacks"));
+		assertEquals(Map.of("replica-0", false), routing.stats().get("replicas"));
+
+		// marked down, so it is not even tried until the health check sees it back
+		assertEquals("primary", read(SERVICE_READ));
+		assertEquals(1L, routing.stats().get("fallbacks"));
+
+		replica.down = false;
+		routing.checkReplicas();
+		assertEquals("replica", read(SERVICE_READ));
+	}
+
+	private String read(String transactionName) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setName(transactionName);
+		template.setReadOnly(true);
+		return template.execute(status -> jdbc.queryForObject("select name from marker", String.class));
+	}
+
+	private String write(String body) {
+		TransactionTemplate template = new TransactionTemplate(transactionManager);
+		template.setName("com.example.sims.service.StudentService.submitApplication");
+		return template.execute(status -> {
+			jdbc.update("insert into notes (body) values (?)", body);
+			return jdbc.queryForObject("select name from marker", String.class);
+		});
+	}
+
+	private static void startRequest() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+
+	private static void authenticate(String email) {
+		SecurityContextHolder.getContext()
+				.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(email, null, List.of()));
+	}
+
+	private static void mark(DataSource dataSource, String name) {
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.execute("create table if not exists marker (name varchar(20))");
+		template.update("delete from marker");
+		template.update("insert into marker (name) values (?)", name);
+	}
+
+	private static final class FlakyDataSource extends DriverManagerDataSource {
+		volatile boolean down;
+
+		FlakyDataSource(String url) {
+			super(url);
+		}
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			if (down) {
+				throw new SQLException("replica unreachable");
+			}
+			return super.getConnection();
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package com.example.sims.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.sims.cache.IdentityCache;
+import com.example.sims.entity.UserEntity;
+import com.example.sims.realtime.PresenceTracker;
+import com.example.sims.repo.CompanyRepository;
+import com.example.sims.repo.StudentProfileRepository;
+import com.example.sims.repo.UserRepository;
+import com.example.sims.security.JwtTokenProvider;
+import com.example.sims.security.PasswordHashingExecutor;
+import com.example.sims.service.AuthService;
+import com.example.sims.service.ChangeVersions;
+import com.example.sims.service.OverviewStatistics;
+
+// Login through the real AuthService and hashing pool, with the repositories mocked.
+class AuthControllerTests {
+
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+	private static final int BCRYPT_STRENGTH = 5;
+	private static final long RETRY_AFTER_SECONDS = 7;
+
+	private final UserRepository users = mock(UserRepository.class);
+	private final JwtTokenProvider jwtTokenProvider = mock(JwtTokenProvider.class);
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private PasswordHashingExecutor hasher;
+	private MockMvc mvc;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+	}
+
+	@Test
+	void aFullHashingQueueAnswers429WithRetryAfter() throws Exception {
+		start(blockingEncoder(), 1, 10_000);
+		register("student@example.com", "hash");
+		// every hashing thread busy, then the one queue slot taken
+		for (int i = 0; i <= THREADS; i++) {
+			hasher.matchesAsync("pw", "hash");
+		}
+
+		mvc.perform(asyncDispatch(login("/auth/login")))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS)))
+				.andExpect(forwardedUrl("auth/login"));
+		mvc.perform(asyncDispatch(login("/api/auth/login")))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS)));
+	}
+
+	@Test
+	void aHashNotDoneInTimeAnswers429WithRetryAfter() throws Exception {
+		start(blockingEncoder(), 10, 100);
+		register("student@example.com", "hash");
+
+		mvc.perform(asyncDispatch(login("/auth/login")))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS)));
+	}
+
+	@Test
+	void aLoginWithAHashOfAnotherCostStoresARehash() throws Exception {
+		start(new BCryptPasswordEncoder(BCRYPT_STRENGTH), 10, 10_000);
+		register("student@example.com", new BCryptPasswordEncoder(4).encode("pw"));
+
+		mvc.perform(asyncDispatch(login("/auth/login"))).andExpect(redirectedUrl("/dashboard"));
+
+		verify(users, timeout(5000)).updatePassword(eq(7L), startsWith("$2a$0" + BCRYPT_STRENGTH + "$"));
+	}
+
+	@Test
+	void aLoginWithAHashOfTheConfiguredCostKeepsIt() throws Exception {
+		start(new BCryptPasswordEncoder(BCRYPT_STRENGTH), 10, 10_000);
+		register("student@example.com", new BCryptPasswordEncoder(BCRYPT_STRENGTH).encode("pw"));
+
+		mvc.perform(asyncDispatch(login("/auth/login"))).andExpect(redirectedUrl("/dashboard"));
+
+		verify(users, after(300).never()).updatePassword(anyLong(), anyString());
+	}
+
+	private void start(PasswordEncoder encoder, int queueCapacity, long timeoutMillis) {
+		hasher = new PasswordHashingExecutor(encoder, BCRYPT_STRENGTH, queueCapacity, timeoutMillis,
+				RETRY_AFTER_SECONDS);
+		AuthService authService = new AuthService(users, mock(StudentProfileRepository.class),
+				mock(CompanyRepository.class), hasher, jwtTokenProvider, mock(IdentityCache.class),
+				mock(PresenceTracker.class), mock(OverviewStatistics.class), mock(ChangeVersions.class),
+				mock(PlatformTransactionManager.class));
+		when(jwtTokenProvider.generateToken(any(), any(), any(), any())).thenReturn("token");
+		AuthController controller = new AuthController(authService, jwtTokenProvider);
+		mvc = MockMvcBuilders.standaloneSetup(controller, controller.new AuthApiController()).build();
+	}
+
+	private void register(String email, String passwordHash) {
+		UserEntity user = new UserEntity(email, "student", passwordHash, "STUDENT");
+		user.setId(7L);
+		user.setActive(true);
+		when(users.findByEmail(email)).thenReturn(Optional.of(user));
+	}
+
+	private MvcResult login(String path) throws Exception {
+		return mvc.perform(post(path).param("email", "student@example.com").param("password", "pw"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+	}
+
+	private PasswordEncoder blockingEncoder() {
+		return new PasswordEncoder() {
+			@Override
+			public String encode(CharSequence rawPassword) {
+				await();
+				return "hash";
+			}
+
+			@Override
+			public boolean matches(CharSequence rawPassword, String encodedPassword) {
+				await();
+				return true;
+			}
+
+			private void await() {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+	}
+}
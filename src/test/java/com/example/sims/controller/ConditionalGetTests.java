@@ -0,0 +1,87 @@
+package com.example.sims.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+
+import com.example.sims.service.ChangeVersions;
+
+class ConditionalGetTests {
+
+	private static final String ETAG = "W/\"abc-1\"";
+	// whole seconds, as Last-Modified carries them
+	private static final long LAST_MODIFIED = 1_767_225_600_000L;
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/student/user-application");
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	@Test
+	void aFirstRequestIsRenderedWithValidators() {
+		assertFalse(notModified(new ChangeVersions.Stamp(ETAG, LAST_MODIFIED)));
+
+		assertEquals(200, response.getStatus());
+		assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+		assertEquals(LAST_MODIFIED, response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+		assertEquals("no-cache, private", response.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	@Test
+	void aMatchingETagIsAnswered304() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+		assertTrue(notModified(new ChangeVersions.Stamp(ETAG, LAST_MODIFIED)));
+		assertEquals(304, response.getStatus());
+	}
+
+	@Test
+	void aStaleETagIsRendered() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"abc-0\"");
+
+		assertFalse(notModified(new ChangeVersions.Stamp(ETAG, LAST_MODIFIED)));
+		assertEquals(200, response.getStatus());
+	}
+
+	@Test
+	void aMatchingIfModifiedSinceIsAnswered304() {
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED);
+
+		assertTrue(notModified(new ChangeVersions.Stamp(ETAG, LAST_MODIFIED)));
+		assertEquals(304, response.getStatus());
+	}
+
+	@Test
+	void withoutLastModifiedOnlyTheETagCanMatch() {
+		// changed within the current second: a date cannot tell this version from the next
+		request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, LAST_MODIFIED + 60_000);
+
+		assertFalse(notModified(new ChangeVersions.Stamp(ETAG, -1)));
+		assertEquals(200, response.getStatus());
+		assertNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+		assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+	}
+
+	@Test
+	void aPageCarryingAFlashMessageIsRendered() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+		FlashMap flash = new FlashMap();
+		flash.put("success", "Application submitted!");
+		request.setAttribute(DispatcherServlet.INPUT_FLASH_MAP_ATTRIBUTE, flash);
+
+		assertFalse(notModified(new ChangeVersions.Stamp(ETAG, LAST_MODIFIED)));
+		assertEquals(200, response.getStatus());
+		assertEquals("no-cache, private", response.getHeader(HttpHeaders.CACHE_CONTROL));
+	}
+
+	private boolean notModified(ChangeVersions.Stamp stamp) {
+		return ConditionalGet.notModified(new ServletWebRequest(request, response), stamp);
+	}
+}
@@ -0,0 +1,286 @@
+package com.example.sims.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.dto.ApplicationListingRow;
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+// Runs every repository query against MySQL with the Flyway schema and a few thousand
+// rows, captures the SQL Hibernate sends, and fails when EXPLAIN shows a full table scan.
+// A new repository method must be added to queries() or, if it reads whole tables on
+// purpose, to WHOLE_TABLE_READS.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTests {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+			.withUrlParam("rewriteBatchedStatements", "true")
+			.withUrlParam("queryInterceptors", StatementCapture.class.getName());
+
+	private static final List<Class<?>> REPOSITORIES = List.of(UserRepository.class, CompanyRepository.class,
+			StudentProfileRepository.class, InternshipRepository.class, ApplicationRepository.class);
+
+	// exports and the catalog build read every row by design
+	private static final Set<String> WHOLE_TABLE_READS = Set.of(
+			"UserRepository.streamAllForExport",
+			"ApplicationRepository.streamAllForExport",
+			"InternshipRepository.findAllWithCompany");
+
+	private static final int STUDENTS = 2000;
+	private static final int COMPANIES = 200;
+	private static final int INTERNSHIPS_PER_COMPANY = 10;
+	private static final int APPLICATIONS_PER_STUDENT = 4;
+
+	private static boolean seeded;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private UserRepository users;
+	@Autowired
+	private CompanyRepository companies;
+	@Autowired
+	private StudentProfileRepository students;
+	@Autowired
+	private InternshipRepository internships;
+	@Autowired
+	private ApplicationRepository applications;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void seed() {
+		if (seeded) {
+			return;
+		}
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> userRows = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS + COMPANIES; i++) {
+			String role = i <= STUDENTS ? (i % 2 == 0 ? "USER" : "STUDENT") : "COMPANY";
+			userRows.add(new Object[] { i, "user" + i + "@example.com", "user" + i, "x", role, i % 7 != 0,
+					now.minusMinutes(i) });
+		}
+		jdbc.batchUpdate("INSERT INTO users (id, email, username, password, role, active, created_at) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?)", userRows);
+
+		List<Object[]> studentRows = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS; i++) {
+			studentRows.add(new Object[] { i, i, String.format("STU-%05d", i), "Student " + i, "Major " + i % 12 });
+		}
+		jdbc.batchUpdate("INSERT INTO student_profiles (id, user_id, student_code, full_name, major) "
+				+ "VALUES (?, ?, ?, ?, ?)", studentRows);
+
+		List<Object[]> companyRows = new ArrayList<>();
+		for (int i = 1; i <= COMPANIES; i++) {
+			companyRows.add(new Object[] { i, STUDENTS + i, "Company " + i });
+		}
+		jdbc.batchUpdate("INSERT INTO companies (id, user_id, company_name) VALUES (?, ?, ?)", companyRows);
+
+		List<Object[]> internshipRows = new ArrayList<>();
+		int internshipCount = COMPANIES * INTERNSHIPS_PER_COMPANY;
+		LocalDate today = LocalDate.now();
+		for (int i = 1; i <= internshipCount; i++) {
+			// about half of them closed
+			LocalDate end = today.plusDays(i % 2 == 0 ? i % 90 + 1 : -(i % 90) - 1);
+			internshipRows.add(new Object[] { i, (i - 1) / INTERNSHIPS_PER_COMPANY + 1, "Internship " + i,
+					"City " + i % 25, 1 + i % 5, end.minusMonths(3), end, now.minusHours(i) });
+		}
+		jdbc.batchUpdate("INSERT INTO internships (id, company_id, title, location, seats, start_date, end_date, "
+				+ "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)", internshipRows);
+
+		List<Object[]> applicationRows = new ArrayList<>();
+		ApplicationStatus[] statuses = ApplicationStatus.values();
+		int id = 1;
+		for (int s = 1; s <= STUDENTS; s++) {
+			for (int k = 0; k < APPLICATIONS_PER_STUDENT; k++) {
+				int internship = (s * 7 + k * 331) % internshipCount + 1;
+				applicationRows.add(new Object[] { id, s, internship, statuses[id % statuses.length].name(),
+						now.minusMinutes(id) });
+				id++;
+			}
+		}
+		jdbc.batchUpdate("INSERT INTO applications (id, student_id, internship_id, status, applied_at) "
+				+ "VALUES (?, ?, ?, ?, ?)", applicationRows);
+
+		// plans depend on statistics, refresh them after the bulk load
+		jdbc.execute("ANALYZE TABLE users, student_profiles, companies, internships, applications");
+		seeded = true;
+	}
+
+	// One call per repository method, with arguments that hit seeded rows
+	private Map<String, Runnable> queries() {
+		LocalDateTime cursorTime = LocalDateTime.now().minusMinutes(500);
+		PageRequest page = PageRequest.of(0, 50);
+		Map<String, Runnable> q = new LinkedHashMap<>();
+		q.put("UserRepository.findByUsername", () -> users.findByUsername("user42"));
+		q.put("UserRepository.findByEmail", () -> users.findByEmail("user42@example.com"));
+		q.put("UserRepository.countByRoleIn", () -> users.countByRoleIn(Set.of("USER", "STUDENT")));
+		q.put("UserRepository.countByRoleInAndActiveTrue",
+				() -> users.countByRoleInAndActiveTrue(Set.of("USER", "STUDENT")));
+		q.put("UserRepository.findPage", () -> users.findPage(page));
+		q.put("UserRepository.findPageAfter", () -> users.findPageAfter(cursorTime, 500L, page));
+		q.put("UserRepository.findPageByRoleIn", () -> users.findPageByRoleIn(Set.of("ADMIN", "COMPANY"), page));
+		q.put("UserRepository.findPageByRoleInAfter",
+				() -> users.findPageByRoleInAfter(Set.of("USER", "STUDENT"), cursorTime, 500L, page));
+		q.put("UserRepository.updatePassword", () -> users.updatePassword(42L, "y"));
+
+		q.put("CompanyRepository.findByUserId", () -> companies.findByUserId((long) STUDENTS + 5));
+		q.put("CompanyRepository.findPage", () -> companies.findPage(page));
+		q.put("CompanyRepository.findPageAfter", () -> companies.findPageAfter(100L, page));
+
+		q.put("StudentProfileRepository.findByUserId", () -> students.findByUserId(42L));
+
+		q.put("InternshipRepository.findByCompanyId", () -> internships.findByCompanyId(7L));
+		q.put("InternshipRepository.findByCompanyIdOrderByCreatedAtDesc",
+				() -> internships.findByCompanyIdOrderByCreatedAtDesc(7L));
+		q.put("InternshipRepository.findByIdWithCompany", () -> internships.findByIdWithCompany(70L));
+		q.put("InternshipRepository.findPage", () -> internships.findPage(page));
+		q.put("InternshipRepository.findPageAfter",
+				() -> internships.findPageAfter(LocalDateTime.now().minusHours(300), 300L, page));
+		q.put("InternshipRepository.takeSeat", () -> internships.takeSeat(70L));
+		q.put("InternshipRepository.releaseSeat", () -> internships.releaseSeat(70L));
+		q.put("InternshipRepository.releaseSeats", () -> internships.releaseSeats(List.of(70L, 71L)));
+		q.put("InternshipRepository.resizeSeats", () -> internships.resizeSeats(70L, 10));
+
+		q.put("ApplicationRepository.findByStudentId", () -> applications.findByStudentId(42L));
+		q.put("ApplicationRepository.findByInternshipId", () -> applications.findByInternshipId(70L));
+		q.put("ApplicationRepository.countByStatus", () -> applications.countByStatus(ApplicationStatus.PENDING));
+		q.put("ApplicationRepository.findListingPage", () -> applications.findListingPage(page));
+		q.put("ApplicationRepository.findListingPageAfter",
+				() -> applications.findListingPageAfter(cursorTime, 500L, page));
+		q.put("ApplicationRepository.findListingByCompanyId", () -> applications.findListingByCompanyId(7L));
+		q.put("ApplicationRepository.findByCompanyId", () -> applications.findByCompanyId(7L));
+		q.put("ApplicationRepository.countByCompanyId", () -> applications.countByCompanyId(7L));
+		q.put("ApplicationRepository.countPendingByCompanyId", () -> applications.countPendingByCompanyId(7L));
+		q.put("ApplicationRepository.updateStatusIf",
+				() -> applications.updateStatusIf(42L, ApplicationStatus.REJECTED, ApplicationStatus.REJECTED));
+		q.put("ApplicationRepository.updateStatusesIf", () -> applications.updateStatusesIf(List.of(42L, 43L, 44L),
+				ApplicationStatus.REJECTED, ApplicationStatus.REJECTED));
+		q.put("ApplicationRepository.findStatusRowsOfCompany",
+				() -> applications.findStatusRowsOfCompany(List.of(42L, 43L, 44L), 7L));
+		q.put("ApplicationRepository.findApprovedInternshipIdsByStudentUserId",
+				() -> applications.findApprovedInternshipIdsByStudentUserId(42L));
+		q.put("ApplicationRepository.countDashboard", () -> applications.countDashboard(42L, LocalDate.now()));
+		q.put("ApplicationRepository.countByStudentId", () -> applications.countByStudentId(42L));
+		q.put("ApplicationRepository.countPendingByStudentId", () -> applications.countPendingByStudentId(42L));
+		q.put("ApplicationRepository.findByStudentIdAndInternshipId",
+				() -> applications.findByStudentIdAndInternshipId(42L, 70L));
+		q.put("ApplicationRepository.findByStudentIdAndIdempotencyKey",
+				() -> applications.findByStudentIdAndIdempotencyKey(42L, "retry-key"));
+		q.put("ApplicationRepository.insertIfAbsent",
+				() -> applications.insertIfAbsent(42L, 70L, "cover letter", "retry-key", LocalDateTime.now()));
+		q.put("ApplicationRepository.lastInsertId", () -> applications.lastInsertId());
+		q.put("ApplicationRepository.findFullApplicationById", () -> applications.findFullApplicationById(42L));
+		return q;
+	}
+
+	@Test
+	void everyRepositoryQueryIsChecked() {
+		Set<String> checked = queries().keySet();
+		Set<String> missing = new TreeSet<>();
+		for (Class<?> repository : REPOSITORIES) {
+			for (Method method : repository.getDeclaredMethods()) {
+				if (method.isDefault() || method.isSynthetic() || Modifier.isStatic(method.getModifiers())) {
+					continue;
+				}
+				String name = repository.getSimpleName() + "." + method.getName();
+				if (!checked.contains(name) && !WHOLE_TABLE_READS.contains(name)) {
+					missing.add(name);
+				}
+			}
+		}
+		assertTrue(missing.isEmpty(), "Repository methods without a plan check: " + missing);
+	}
+
+	@TestFactory
+	Stream<DynamicTest> noQueryScansAWholeTable() {
+		return queries().entrySet().stream()
+				.map(query -> DynamicTest.dynamicTest(query.getKey(), () -> assertIndexed(query.getValue())));
+	}
+
+	// exports are whole-table reads, but still one statement however many rows they return
+	@Test
+	void theApplicationExportIsASingleStatement() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		StatementCapture.start();
+		long rows;
+		List<String> statements;
+		try {
+			rows = readOnly.execute(status -> {
+				try (Stream<ApplicationListingRow> export = applications.streamAllForExport()) {
+					return export.count();
+				}
+			});
+		} finally {
+			statements = StatementCapture.stop();
+		}
+		assertEquals(applications.count(), rows);
+		assertEquals(1, statements.stream().filter(QueryPlanTests::isExplainable).count(), statements::toString);
+	}
+
+	private void assertIndexed(Runnable query) {
+		StatementCapture.start();
+		List<String> statements;
+		try {
+			query.run();
+		} finally {
+			statements = StatementCapture.stop();
+		}
+		List<String> explained = statements.stream().filter(QueryPlanTests::isExplainable).toList();
+		assertFalse(explained.isEmpty(), "No statement captured: " + statements);
+		for (String sql : explained) {
+			List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql);
+			for (Map<String, Object> step : plan) {
+				if ("ALL".equals(step.get("type"))) {
+					fail("Full scan of " + step.get("table") + "\n  " + sql + "\n  " + plan);
+				}
+			}
+		}
+	}
+
+	// the repository statements themselves, not driver or session housekeeping
+	private static boolean isExplainable(String sql) {
+		String s = sql.stripLeading().toLowerCase(Locale.ROOT);
+		return (s.startsWith("select") || s.startsWith("insert") || s.startsWith("update") || s.startsWith("delete"))
+				&& !s.contains("@@");
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.sims.repo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import com.mysql.cj.MysqlConnection;
+import com.mysql.cj.Query;
+import com.mysql.cj.interceptors.QueryInterceptor;
+import com.mysql.cj.log.Log;
+import com.mysql.cj.protocol.Resultset;
+import com.mysql.cj.protocol.ServerSession;
+
+// Driver-level hook that records the SQL the calling thread sends between start() and
+// stop(). Client-side prepared statements render their bound values into the text, so
+// the captured statements can be fed straight to EXPLAIN.
+public class StatementCapture implements QueryInterceptor {
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	static void start() {
+		CAPTURED.set(new ArrayList<>());
+	}
+
+	static List<String> stop() {
+		List<String> captured = CAPTURED.get();
+		CAPTURED.remove();
+		return captured != null ? captured : List.of();
+	}
+
+	@Override
+	public QueryInterceptor init(MysqlConnection conn, Properties props, Log log) {
+		return this;
+	}
+
+	@Override
+	public <T extends Resultset> T preProcess(Supplier<String> sql, Query interceptedQuery) {
+		List<String> captured = CAPTURED.get();
+		if (captured != null && sql != null) {
+			captured.add(sql.get());
+		}
+		return null;
+	}
+
+	@Override
+	public boolean executeTopLevelOnly() {
+		return true;
+	}
+
+	@Override
+	public void destroy() {
+	}
+
+	@Override
+	public <T extends Resultset> T postProcess(Supplier<String> sql, Query interceptedQuery, T originalResultSet,
+			ServerSession serverSession) {
+		return null;
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.sims.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHashingExecutorTests {
+
+	private static final int THREADS = Runtime.getRuntime().availableProcessors();
+	private static final long RETRY_AFTER_SECONDS = 7;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	// stands in for a slow hash: holds its hashing thread until released
+	private final PasswordEncoder blocking = new PasswordEncoder() {
+		@Override
+		public String encode(CharSequence rawPassword) {
+			await();
+			return "hash";
+		}
+
+		@Override
+		public boolean matches(CharSequence rawPassword, String encodedPassword) {
+			await();
+			return true;
+		}
+
+		private void await() {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	};
+
+	private PasswordHashingExecutor executor;
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void aFullQueueFailsFastWithRetryAfter() {
+		executor = new PasswordHashingExecutor(blocking, 10, 1, 10_000, RETRY_AFTER_SECONDS);
+		// every hashing thread busy, then the one queue slot taken
+		for (int i = 0; i <= THREADS; i++) {
+			executor.matchesAsync("pw", "hash");
+		}
+
+		PasswordHashingBusyException busy = assertThrows(PasswordHashingBusyException.class,
+				() -> executor.matchesAsync("pw", "hash"));
+
+		assertEquals(RETRY_AFTER_SECONDS, busy.getRetryAfterSeconds());
+		assertEquals(1L, executor.stats().get("rejected"));
+	}
+
+	@Test
+	void aHashNotDoneInTimeFailsAsBusy() {
+		executor = new PasswordHashingExecutor(blocking, 10, 10, 100, RETRY_AFTER_SECONDS);
+
+		CompletableFuture<String> hash = executor.encodeAsync("pw");
+
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> hash.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(PasswordHashingBusyException.class, failure.getCause());
+	}
+
+	@Test
+	void needsRehashComparesTheCostOfTheStoredHash() {
+		executor = new PasswordHashingExecutor(new BCryptPasswordEncoder(10), 10, 10, 10_000, RETRY_AFTER_SECONDS);
+
+		assertFalse(executor.needsRehash(new BCryptPasswordEncoder(10).encode("pw")));
+		assertTrue(executor.needsRehash(new BCryptPasswordEncoder(4).encode("pw")));
+		assertTrue(executor.needsRehash("$2y$12$abcdefghijklmnopqrstuu5sXqSE8nRwh4Xr0HQsHxwbdRqhX3L1C"));
+		// not BCrypt, or not readable: left alone
+		assertFalse(executor.needsRehash(null));
+		assertFalse(executor.needsRehash("plain-text"));
+		assertFalse(executor.needsRehash("$2a$"));
+		assertFalse(executor.needsRehash("$2a$xx$abcdefghijklmnopqrstuu"));
+	}
+}
@@ -0,0 +1,149 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.security.PasswordHashingExecutor;
+
+// importCsv against MySQL with the Flyway schema. Hashing is stubbed; hashing the password
+// "race" registers the same email first, the way a concurrent sign-up would, so the
+// chunk holding that row is refused and written again row by row.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class AccountImportMySqlTests {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	private static final int BATCH_SIZE = 3;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private AccountImportService importService;
+
+	@BeforeEach
+	void setUp() {
+		jdbc.update("DELETE FROM users");
+		jdbc.update("INSERT INTO users (email, username, password, role, active, created_at) "
+				+ "VALUES ('taken@example.com', 'TakenName', 'x', 'USER', true, ?)", LocalDateTime.now());
+
+		PasswordHashingExecutor hasher = mock(PasswordHashingExecutor.class);
+		when(hasher.encodeAsync(any())).thenAnswer(invocation -> {
+			String password = invocation.getArgument(0).toString();
+			if (password.equals("race")) {
+				jdbc.update("INSERT INTO users (email, username, password, role, active, created_at) "
+						+ "VALUES ('r1@example.com', 'racer', 'x', 'USER', true, ?)", LocalDateTime.now());
+			}
+			return CompletableFuture.completedFuture("hash-" + password);
+		});
+		importService = new AccountImportService(jdbc, transactionManager, hasher, mock(OverviewStatistics.class),
+				mock(ChangeVersions.class), BATCH_SIZE, 2);
+	}
+
+	@Test
+	void importsValidRowsAndReportsTheRestByLine() throws Exception {
+		AccountImportService.Report report = importService.importCsv(csv(
+				"Email,Username,Password,Role,Full_Name,Major",
+				"taken@example.com,fresh,pw,STUDENT,,", // 2: in the database
+				"new@example.com,takenname,pw,,,", // 3: username in the database, other case
+				"s1@example.com,s1,pw1,student,Sok Dara,CS",
+				"c1@example.com,c1,pw2,COMPANY,\"Acme, Ltd\",",
+				"S1@example.com,s1b,pw,USER,,", // 6: earlier in the file, other case
+				"u1@example.com,u1,pw3,,,",
+				"",
+				"not-an-email,x,pw,STUDENT,,", // 9
+				"r1@example.com,r1,race,STUDENT,,", // 10: registered while its chunk was hashed
+				"x1@example.com,x1,pw,ADMIN,,", // 11
+				"v1@example.com,v1,pw4,STUDENT,,",
+				"w1@example.com,w1,pw5,COMPANY,,"));
+
+		assertEquals(5, report.imported());
+		assertEquals(6, report.failed());
+		Map<Long, String> errors = new TreeMap<>();
+		report.errors().forEach(e -> errors.put(e.line(), e.message()));
+		assertEquals(Map.of(
+				2L, "Email already exists",
+				3L, "Username already exists",
+				6L, "Email already exists",
+				9L, "Invalid email",
+				10L, "Email or username already exists",
+				11L, "Role must be USER, STUDENT or COMPANY"), errors);
+
+		// the rows of the refused chunk that did not conflict went in one by one
+		assertEquals(List.of("c1@example.com", "r1@example.com", "s1@example.com", "taken@example.com",
+				"u1@example.com", "v1@example.com", "w1@example.com"),
+				jdbc.queryForList("SELECT email FROM users ORDER BY email", String.class));
+		assertEquals("racer", jdbc.queryForObject(
+				"SELECT username FROM users WHERE email = 'r1@example.com'", String.class));
+		assertEquals("hash-pw1", jdbc.queryForObject(
+				"SELECT password FROM users WHERE email = 's1@example.com'", String.class));
+	}
+
+	@Test
+	void rolesMapToProfiles() throws Exception {
+		importService.importCsv(csv(
+				"email,username,password,role,full_name,major",
+				"s1@example.com,s1,pw,STUDENT,Sok Dara,CS",
+				"u1@example.com,u1,pw,,,",
+				"c1@example.com,c1,pw,company,\"Acme, Ltd\",ignored"));
+
+		// students and plain users get a student profile, named after the username by default
+		assertEquals(List.of(Map.of("email", "s1@example.com", "role", "STUDENT", "full_name", "Sok Dara",
+				"major", "CS", "code_matches", 1L),
+				Map.of("email", "u1@example.com", "role", "USER", "full_name", "u1", "code_matches", 1L)),
+				jdbc.queryForList("SELECT u.email, u.role, p.full_name, p.major, "
+						+ "p.student_code = CONCAT('STU-', LPAD(u.id, 5, '0')) AS code_matches "
+						+ "FROM users u JOIN student_profiles p ON p.user_id = u.id ORDER BY u.email")
+						.stream().map(AccountImportMySqlTests::withoutNulls).toList());
+		assertEquals(List.of("Acme, Ltd"), jdbc.queryForList(
+				"SELECT c.company_name FROM companies c JOIN users u ON u.id = c.user_id "
+						+ "WHERE u.email = 'c1@example.com' AND u.role = 'COMPANY'", String.class));
+		assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM student_profiles p JOIN users u "
+				+ "ON u.id = p.user_id WHERE u.role = 'COMPANY'", Integer.class));
+	}
+
+	private static ByteArrayInputStream csv(String... lines) {
+		return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static Map<String, Object> withoutNulls(Map<String, Object> row) {
+		Map<String, Object> copy = new TreeMap<>();
+		row.forEach((column, value) -> {
+			if (value != null) {
+				copy.put(column.toLowerCase(Locale.ROOT), value instanceof Number n ? n.longValue() : value);
+			}
+		});
+		return copy;
+	}
+}
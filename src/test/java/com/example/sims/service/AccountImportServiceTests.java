@@ -0,0 +1,33 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AccountImportServiceTests {
+
+	@Test
+	void splitsPlainFields() {
+		assertEquals(List.of("a@example.com", "alice", "secret", "STUDENT"),
+				AccountImportService.parseLine("a@example.com,alice,secret,STUDENT"));
+	}
+
+	@Test
+	void keepsEmptyFields() {
+		assertEquals(List.of("a@example.com", "", "", ""), AccountImportService.parseLine("a@example.com,,,"));
+	}
+
+	@Test
+	void quotedFieldsMayHoldCommasAndQuotes() {
+		assertEquals(List.of("b@example.com", "Acme, \"The\" Company", "COMPANY"),
+				AccountImportService.parseLine("b@example.com,\"Acme, \"\"The\"\" Company\",COMPANY"));
+	}
+
+	@Test
+	void rejectsUnterminatedQuotes() {
+		assertThrows(IllegalArgumentException.class, () -> AccountImportService.parseLine("c@example.com,\"open"));
+	}
+}
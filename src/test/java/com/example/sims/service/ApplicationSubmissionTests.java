@@ -0,0 +1,159 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.cache.IdentityCache;
+
+// Submitting applications against MySQL: a repeated submit stores one application and
+// reports the stored one, and an idempotency key cannot be reused for another internship.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({ StudentService.class, SeatAllocator.class, IdentityCache.class, OverviewStatistics.class,
+		ChangeVersions.class, ApplicationOutbox.class, OutboxRelay.class })
+class ApplicationSubmissionTests {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	private static final long STUDENT_ID = 1;
+	private static final long INTERNSHIP_ID = 1;
+	private static final long OTHER_INTERNSHIP_ID = 2;
+	// a double click
+	private static final int THREADS = 2;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private StudentService studentService;
+
+	@BeforeEach
+	void seed() {
+		// companies, profiles, internships and applications go with their users
+		jdbc.update("DELETE FROM users");
+		LocalDateTime now = LocalDateTime.now();
+		jdbc.batchUpdate("INSERT INTO users (id, email, username, password, role, active, created_at) "
+				+ "VALUES (?, ?, ?, 'x', ?, true, ?)", List.of(
+						new Object[] { 1, "student@example.com", "student", "STUDENT", now },
+						new Object[] { 2, "company@example.com", "company", "COMPANY", now }));
+		jdbc.update("INSERT INTO student_profiles (id, user_id, student_code, full_name) "
+				+ "VALUES (?, 1, 'STU-00001', 'Student')", STUDENT_ID);
+		jdbc.update("INSERT INTO companies (id, user_id, company_name) VALUES (1, 2, 'Company')");
+		jdbc.batchUpdate("INSERT INTO internships (id, company_id, title, seats, created_at) VALUES (?, 1, ?, 5, ?)",
+				List.of(new Object[] { INTERNSHIP_ID, "First", now },
+						new Object[] { OTHER_INTERNSHIP_ID, "Second", now }));
+	}
+
+	@Test
+	void aRepeatedSubmitReturnsTheStoredApplication() {
+		StudentService.Submission first = studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "first",
+				"key-1");
+		StudentService.Submission again = studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "again",
+				"key-1");
+
+		assertTrue(first.created());
+		assertFalse(again.created());
+		assertEquals(first.application().getId(), again.application().getId());
+		assertEquals("first", again.application().getCoverLetter());
+		assertEquals(1, applicationsOf(INTERNSHIP_ID));
+	}
+
+	@Test
+	void aSecondSubmitWithAFreshKeyFindsTheApplicationByInternship() {
+		StudentService.Submission first = studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "first",
+				"key-1");
+		StudentService.Submission again = studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "again",
+				"key-2");
+		StudentService.Submission keyless = studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "keyless",
+				null);
+
+		assertFalse(again.created());
+		assertFalse(keyless.created());
+		assertEquals(first.application().getId(), again.application().getId());
+		assertEquals(first.application().getId(), keyless.application().getId());
+		assertEquals(1, applicationsOf(INTERNSHIP_ID));
+	}
+
+	@Test
+	void concurrentDoubleSubmitsCreateOneApplication() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<StudentService.Submission>> submits = new ArrayList<>();
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				submits.add(pool.submit(() -> {
+					start.await();
+					return studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "cover letter", "double-click");
+				}));
+			}
+			start.countDown();
+			int created = 0;
+			Long id = null;
+			for (Future<StudentService.Submission> submit : submits) {
+				StudentService.Submission submission = submit.get();
+				created += submission.created() ? 1 : 0;
+				if (id == null) {
+					id = submission.application().getId();
+				}
+				assertEquals(id, submission.application().getId());
+			}
+			assertEquals(1, created);
+		} finally {
+			pool.shutdownNow();
+		}
+		assertEquals(1, applicationsOf(INTERNSHIP_ID));
+	}
+
+	@Test
+	void reusingAKeyForAnotherInternshipIsRejected() {
+		studentService.submitApplication(STUDENT_ID, INTERNSHIP_ID, "first", "key-1");
+
+		assertThrows(IdempotencyKeyReusedException.class,
+				() -> studentService.submitApplication(STUDENT_ID, OTHER_INTERNSHIP_ID, "second", "key-1"));
+
+		assertEquals(1, applicationsOf(INTERNSHIP_ID));
+		assertEquals(0, applicationsOf(OTHER_INTERNSHIP_ID));
+		// the key-less path still applies to the other internship
+		assertTrue(studentService.submitApplication(STUDENT_ID, OTHER_INTERNSHIP_ID, "second", null).created());
+	}
+
+	@Test
+	void aMissingInternshipStoresNothing() {
+		assertThrows(IllegalArgumentException.class,
+				() -> studentService.submitApplication(STUDENT_ID, 99L, "cover letter", "key-1"));
+
+		assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM applications", Integer.class));
+	}
+
+	private int applicationsOf(long internshipId) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM applications WHERE internship_id = ?", Integer.class,
+				internshipId);
+	}
+}
@@ -0,0 +1,127 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class ChangeVersionsTests {
+
+	private static final String STUDENT = ChangeVersions.studentApplications(1L);
+	private static final String OTHER_STUDENT = ChangeVersions.studentApplications(2L);
+
+	private final ChangeVersions changeVersions = new ChangeVersions();
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void aChangeMovesTheETagOfEveryResponseDependingOnTheKey() {
+		String student = etag(STUDENT, ChangeVersions.INTERNSHIPS);
+		String other = etag(OTHER_STUDENT, ChangeVersions.INTERNSHIPS);
+		assertEquals(student, etag(STUDENT, ChangeVersions.INTERNSHIPS));
+		// same versions, different data
+		assertNotEquals(student, other);
+
+		changeVersions.changed(STUDENT);
+		assertNotEquals(student, etag(STUDENT, ChangeVersions.INTERNSHIPS));
+		assertEquals(other, etag(OTHER_STUDENT, ChangeVersions.INTERNSHIPS));
+
+		String changedStudent = etag(STUDENT, ChangeVersions.INTERNSHIPS);
+		changeVersions.onInternshipChanged(new InternshipChangedEvent(5L));
+		assertNotEquals(changedStudent, etag(STUDENT, ChangeVersions.INTERNSHIPS));
+		assertNotEquals(other, etag(OTHER_STUDENT, ChangeVersions.INTERNSHIPS));
+	}
+
+	@Test
+	void changedAllMovesEveryKey() {
+		changeVersions.changed(STUDENT);
+		String student = etag(STUDENT);
+		String companies = etag(ChangeVersions.COMPANIES);
+
+		changeVersions.changedAll();
+
+		assertNotEquals(student, etag(STUDENT));
+		assertNotEquals(companies, etag(ChangeVersions.COMPANIES));
+	}
+
+	@Test
+	void versionsMoveOnlyWhenTheTransactionCommits() {
+		String before = etag(STUDENT);
+
+		TransactionSynchronizationManager.initSynchronization();
+		changeVersions.changed(STUDENT);
+		// a reader during the transaction must not cache the old rows under a new version
+		assertEquals(before, etag(STUDENT));
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		TransactionSynchronizationManager.clearSynchronization();
+
+		assertNotEquals(before, etag(STUDENT));
+	}
+
+	@Test
+	void aRolledBackTransactionChangesNothing() {
+		String before = etag(STUDENT);
+
+		TransactionSynchronizationManager.initSynchronization();
+		changeVersions.changed(STUDENT);
+		changeVersions.changedAll();
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		TransactionSynchronizationManager.clearSynchronization();
+
+		assertEquals(before, etag(STUDENT));
+		assertEquals(0L, changeVersions.stats().get("bumps"));
+	}
+
+	@Test
+	void lastModifiedIsLeftOutWithinTheSecondOfAChange() throws InterruptedException {
+		// retried on the rare run where the clock crosses a second between change and stamp
+		for (int attempt = 0; ; attempt++) {
+			long before = System.currentTimeMillis();
+			changeVersions.changed(STUDENT);
+			ChangeVersions.Stamp stamp = changeVersions.stamp(STUDENT);
+			if (before / 1000 == System.currentTimeMillis() / 1000) {
+				assertEquals(-1, stamp.lastModified());
+				break;
+			}
+			assertTrue(attempt < 5, "the clock kept crossing seconds");
+		}
+
+		// once that second is over the version can be offered as Last-Modified
+		Thread.sleep(1000 - System.currentTimeMillis() % 1000 + 10);
+		ChangeVersions.Stamp stamp = changeVersions.stamp(STUDENT);
+		assertTrue(stamp.lastModified() > 0);
+		assertTrue(stamp.lastModified() < System.currentTimeMillis() / 1000 * 1000);
+	}
+
+	@Test
+	void aRequestRemembersTheNewestChangeItStamped() {
+		assertEquals(0, ChangeVersions.stampedChangeTime());
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		changeVersions.changed(STUDENT);
+
+		changeVersions.stamp(STUDENT);
+		long stamped = ChangeVersions.stampedChangeTime();
+		changeVersions.stamp(OTHER_STUDENT);
+
+		assertTrue(stamped > 0);
+		assertEquals(stamped, ChangeVersions.stampedChangeTime());
+	}
+
+	private String etag(String... keys) {
+		return changeVersions.stamp(keys).etag();
+	}
+}
@@ -0,0 +1,175 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.cache.IdentityCache;
+
+// The queries behind the student and company dashboards against MySQL, run one after
+// another the way the controllers used to and forked through DashboardAssembler the way
+// they do now. Reports median and p90 page latency for both; run with ./gradlew benchmark.
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({ StudentService.class, CompanyService.class, DashboardAssembler.class, SeatAllocator.class,
+		IdentityCache.class, OverviewStatistics.class, ChangeVersions.class, ApplicationOutbox.class,
+		OutboxRelay.class })
+class DashboardAssemblerBenchmark {
+	private static final Logger log = LoggerFactory.getLogger(DashboardAssemblerBenchmark.class);
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	private static final int STUDENTS = 500;
+	private static final int COMPANIES = 20;
+	private static final int INTERNSHIPS = 400;
+	private static final int APPLICATIONS_PER_STUDENT = 40;
+	private static final int WARMUP = 50;
+	private static final int ITERATIONS = 300;
+
+	private static final long STUDENT_ID = 1;
+	private static final long COMPANY_ID = 1;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private StudentService studentService;
+	@Autowired
+	private CompanyService companyService;
+	@Autowired
+	private DashboardAssembler dashboardAssembler;
+
+	@BeforeEach
+	void seed() {
+		// companies, profiles, internships and applications go with their users
+		jdbc.update("DELETE FROM users");
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> users = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS + COMPANIES; i++) {
+			users.add(new Object[] { i, "user" + i + "@example.com", "user" + i, i <= STUDENTS ? "STUDENT" : "COMPANY",
+					now });
+		}
+		jdbc.batchUpdate("INSERT INTO users (id, email, username, password, role, active, created_at) "
+				+ "VALUES (?, ?, ?, 'x', ?, true, ?)", users);
+		List<Object[]> students = new ArrayList<>();
+		for (int i = 1; i <= STUDENTS; i++) {
+			students.add(new Object[] { i, i, String.format("STU-%05d", i), "Student " + i });
+		}
+		jdbc.batchUpdate("INSERT INTO student_profiles (id, user_id, student_code, full_name) VALUES (?, ?, ?, ?)",
+				students);
+		List<Object[]> companies = new ArrayList<>();
+		for (int i = 1; i <= COMPANIES; i++) {
+			companies.add(new Object[] { i, STUDENTS + i, "Company " + i });
+		}
+		jdbc.batchUpdate("INSERT INTO companies (id, user_id, company_name) VALUES (?, ?, ?)", companies);
+		List<Object[]> internships = new ArrayList<>();
+		for (int i = 1; i <= INTERNSHIPS; i++) {
+			internships.add(new Object[] { i, (i - 1) % COMPANIES + 1, "Internship " + i, now.minusMinutes(i) });
+		}
+		jdbc.batchUpdate("INSERT INTO internships (id, company_id, title, seats, created_at) VALUES (?, ?, ?, 5, ?)",
+				internships);
+		List<Object[]> applications = new ArrayList<>();
+		String[] statuses = { "PENDING", "APPROVED", "REJECTED" };
+		for (int s = 1; s <= STUDENTS; s++) {
+			for (int a = 0; a < APPLICATIONS_PER_STUDENT; a++) {
+				int internship = (s * 7 + a * 13) % INTERNSHIPS + 1;
+				applications.add(new Object[] { s, internship, statuses[(s + a) % 3], now.minusMinutes(a) });
+			}
+		}
+		jdbc.batchUpdate("INSERT IGNORE INTO applications (student_id, internship_id, status, applied_at) "
+				+ "VALUES (?, ?, ?, ?)", applications);
+	}
+
+	@Test
+	void studentDashboard() throws Exception {
+		List<Callable<?>> queries = List.of(
+				() -> studentService.getStudentById(STUDENT_ID).orElse(null),
+				() -> studentService.getStudentApplications(STUDENT_ID),
+				() -> studentService.getDashboardCounts(STUDENT_ID));
+
+		compare("student", queries);
+	}
+
+	@Test
+	void companyDashboard() throws Exception {
+		List<Callable<?>> queries = List.of(
+				() -> companyService.getCompanyById(COMPANY_ID).orElse(null),
+				() -> companyService.getCompanyInternships(COMPANY_ID),
+				() -> companyService.getTotalApplications(COMPANY_ID),
+				() -> companyService.getPendingApplications(COMPANY_ID));
+
+		compare("company", queries);
+	}
+
+	private void compare(String dashboard, List<Callable<?>> queries) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			sequential(queries);
+			assembled(queries);
+		}
+		long[] sequential = new long[ITERATIONS];
+		long[] assembled = new long[ITERATIONS];
+		// interleaved so drift in the container affects both alike
+		for (int i = 0; i < ITERATIONS; i++) {
+			long start = System.nanoTime();
+			sequential(queries);
+			sequential[i] = System.nanoTime() - start;
+			start = System.nanoTime();
+			assembled(queries);
+			assembled[i] = System.nanoTime() - start;
+		}
+		log.info("{} dashboard, {} queries: sequential median {} ms, p90 {} ms; assembled median {} ms, p90 {} ms",
+				dashboard, queries.size(), millis(sequential, 50), millis(sequential, 90), millis(assembled, 50),
+				millis(assembled, 90));
+	}
+
+	private static void sequential(List<Callable<?>> queries) throws Exception {
+		for (Callable<?> query : queries) {
+			query.call();
+		}
+	}
+
+	private void assembled(List<Callable<?>> queries) {
+		try (DashboardAssembler.Scope scope = dashboardAssembler.open()) {
+			List<DashboardAssembler.Part<Object>> parts = new ArrayList<>();
+			for (Callable<?> query : queries) {
+				parts.add(scope.fork(query::call, null));
+			}
+			scope.join();
+			assertFalse(scope.isPartial());
+			assertEquals(queries.size(), parts.stream().filter(DashboardAssembler.Part::isAvailable).count());
+		}
+	}
+
+	private static String millis(long[] nanos, int percentile) {
+		long[] sorted = nanos.clone();
+		Arrays.sort(sorted);
+		long value = sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+		return String.format("%.2f", value / 1_000_000.0);
+	}
+}
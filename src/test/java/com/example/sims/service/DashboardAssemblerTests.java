@@ -0,0 +1,91 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+class DashboardAssemblerTests {
+
+	private static final long QUERY_TIMEOUT_MILLIS = 2000;
+
+	private final DashboardAssembler assembler = new DashboardAssembler(QUERY_TIMEOUT_MILLIS);
+
+	@AfterEach
+	void tearDown() {
+		assembler.shutdown();
+	}
+
+	@Test
+	void forkedQueriesRunAtTheSameTime() {
+		// every query waits until all four have started; run one after another, the first
+		// would time out waiting for the rest and the result would be partial
+		CountDownLatch started = new CountDownLatch(4);
+		try (DashboardAssembler.Scope scope = assembler.open()) {
+			var a = scope.fork(() -> overlapping(started, 1L), 0L);
+			var b = scope.fork(() -> overlapping(started, List.of("x")), List.of());
+			var c = scope.fork(() -> overlapping(started, 2L), 0L);
+			var d = scope.fork(() -> overlapping(started, 3L), 0L);
+			scope.join();
+			assertFalse(scope.isPartial());
+			assertEquals(1L, a.get());
+			assertEquals(List.of("x"), b.get());
+			assertEquals(2L, c.get());
+			assertEquals(3L, d.get());
+		}
+	}
+
+	@Test
+	@Timeout(value = 5, unit = TimeUnit.SECONDS)
+	void slowQueryFallsBackAndMarksResultPartial() throws InterruptedException {
+		CountDownLatch never = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		try (DashboardAssembler.Scope scope = assembler.open()) {
+			var fast = scope.fork(() -> 1L, 0L);
+			var slow = scope.fork(() -> {
+				try {
+					never.await();
+				} catch (InterruptedException e) {
+					cancelled.countDown();
+					throw e;
+				}
+				return 2L;
+			}, -1L, 150);
+			scope.join();
+			assertTrue(scope.isPartial());
+			assertEquals(1L, fast.get());
+			assertTrue(fast.isAvailable());
+			assertEquals(-1L, slow.get());
+			assertFalse(slow.isAvailable());
+		}
+		// the timed-out query is interrupted rather than left running
+		assertTrue(cancelled.await(QUERY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	void failingQueryFallsBack() {
+		try (DashboardAssembler.Scope scope = assembler.open()) {
+			var failing = scope.<Long>fork(() -> {
+				throw new IllegalStateException("db down");
+			}, 0L);
+			scope.join();
+			assertTrue(scope.isPartial());
+			assertEquals(0L, failing.get());
+		}
+	}
+
+	private static <T> T overlapping(CountDownLatch started, T result) throws InterruptedException {
+		started.countDown();
+		if (!started.await(QUERY_TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS)) {
+			throw new IllegalStateException("the other queries did not start while this one ran");
+		}
+		return result;
+	}
+}
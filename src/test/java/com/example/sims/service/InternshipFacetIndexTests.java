@@ -0,0 +1,152 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.sims.entity.CompanyEntity;
+import com.example.sims.entity.InternshipEntity;
+import com.example.sims.repo.InternshipRepository;
+import com.example.sims.service.InternshipFacetIndex.FacetCount;
+import com.example.sims.service.InternshipFacetIndex.Filter;
+import com.example.sims.service.InternshipFacetIndex.Result;
+import com.example.sims.service.InternshipFacetIndex.Status;
+
+class InternshipFacetIndexTests {
+
+	private static final LocalDate TODAY = LocalDate.now();
+	private static final CompanyEntity ACME = company(1, "Acme");
+	private static final CompanyEntity GLOBEX = company(2, "Globex");
+
+	private final InternshipRepository repository = mock(InternshipRepository.class);
+	private final InternshipFacetIndex index = new InternshipFacetIndex(repository);
+
+	@BeforeEach
+	void setUp() {
+		when(repository.findAllWithCompany()).thenReturn(List.of(
+				// open with a free seat
+				internship(1, ACME, "Phnom Penh", 2, 0, TODAY.plusDays(10), TODAY.plusDays(40)),
+				// open, no end date, full
+				internship(2, ACME, "phnom penh ", 1, 1, TODAY.plusDays(5), null),
+				// ended yesterday
+				internship(3, GLOBEX, "Siem Reap", 3, 0, TODAY.minusDays(60), TODAY.minusDays(1)),
+				// open, no start date
+				internship(4, GLOBEX, "Phnom Penh", 1, 0, null, TODAY.plusDays(100))));
+	}
+
+	@AfterEach
+	void tearDown() {
+		index.stop();
+	}
+
+	@Test
+	void filtersIntersect() {
+		assertEquals(List.of(4L, 2L, 1L), ids(query(filter(List.of("PHNOM PENH"), null, null, null, null, null))));
+		assertEquals(List.of(1L),
+				ids(query(filter(List.of("Phnom Penh"), List.of(1L), null, null, null, true))));
+		assertEquals(List.of(4L, 1L),
+				ids(query(filter(List.of("Phnom Penh"), null, null, null, Status.OPEN, true))));
+		assertEquals(List.of(3L), ids(query(filter(null, null, null, null, Status.CLOSED, null))));
+		// values within one facet are alternatives
+		assertEquals(List.of(4L, 3L, 2L, 1L),
+				ids(query(filter(List.of("Phnom Penh", "Siem Reap"), null, null, null, null, null))));
+		// starting from today on and ending within fifty days; open-ended rows match neither bound
+		assertEquals(List.of(2L, 1L), ids(query(filter(null, null, TODAY, null, null, null))));
+		assertEquals(List.of(3L, 1L), ids(query(filter(null, null, null, TODAY.plusDays(50), null, null))));
+		assertEquals(List.of(1L), ids(query(filter(null, null, TODAY, TODAY.plusDays(50), null, null))));
+		assertEquals(List.of(), ids(query(filter(List.of("Siem Reap"), List.of(1L), null, null, null, null))));
+	}
+
+	@Test
+	void eachFacetIsCountedWithTheOtherFiltersApplied() {
+		Result acme = query(filter(null, List.of(1L), null, null, null, null));
+
+		assertEquals(List.of(2L, 1L), ids(acme));
+		// the company facet ignores its own selection, so Globex stays selectable
+		assertEquals(List.of(new FacetCount("1", "Acme", 2), new FacetCount("2", "Globex", 2)),
+				acme.facets().get("company"));
+		// the first spelling seen labels the location
+		assertEquals(List.of(new FacetCount("phnom penh", "Phnom Penh", 2)), acme.facets().get("location"));
+		assertEquals(List.of(new FacetCount("OPEN", "Open", 2), new FacetCount("CLOSED", "Closed", 0)),
+				acme.facets().get("status"));
+		assertEquals(List.of(new FacetCount("true", "Seats available", 1), new FacetCount("false", "Full", 1)),
+				acme.facets().get("available"));
+
+		Result siemReap = query(filter(List.of("Siem Reap"), null, null, null, null, null));
+
+		assertEquals(List.of(new FacetCount("2", "Globex", 1)), siemReap.facets().get("company"));
+		assertEquals(List.of(new FacetCount("phnom penh", "Phnom Penh", 3), new FacetCount("siem reap", "Siem Reap", 1)),
+				siemReap.facets().get("location"));
+	}
+
+	@Test
+	void aDeletedInternshipsOrdinalIsReused() throws InterruptedException {
+		query(filter(null, null, null, null, null, null));
+		when(repository.findByIdWithCompany(2L)).thenReturn(Optional.empty());
+
+		index.onInternshipChanged(new InternshipChangedEvent(2L));
+		index.awaitUpdates();
+
+		assertEquals(3, index.stats().get("internships"));
+		assertEquals(4, index.stats().get("ordinals"));
+		assertEquals(List.of(), ids(query(filter(null, null, null, null, null, false))));
+
+		CompanyEntity initech = company(3, "Initech");
+		when(repository.findByIdWithCompany(5L))
+				.thenReturn(Optional.of(internship(5, initech, "Battambang", 1, 1, null, null)));
+
+		index.onInternshipChanged(new InternshipChangedEvent(5L));
+		index.awaitUpdates();
+
+		assertEquals(4, index.stats().get("internships"));
+		assertEquals(4, index.stats().get("ordinals"));
+		// nothing of the deleted internship is left on the reused ordinal
+		assertEquals(List.of(5L), ids(query(filter(null, null, null, null, null, false))));
+		assertEquals(List.of(1L), ids(query(filter(null, List.of(1L), null, null, null, null))));
+		assertEquals(List.of(4L, 1L), ids(query(filter(List.of("Phnom Penh"), null, null, null, null, null))));
+		assertEquals(List.of(5L), ids(query(filter(List.of("Battambang"), List.of(3L), null, null, null, null))));
+	}
+
+	private Result query(Filter filter) {
+		return index.query(filter, 0, InternshipFacetIndex.MAX_PAGE_SIZE);
+	}
+
+	private static Filter filter(List<String> locations, List<Long> companyIds, LocalDate startFrom,
+			LocalDate endTo, Status status, Boolean available) {
+		return new Filter(locations, companyIds, startFrom, endTo, status, available);
+	}
+
+	private static List<Long> ids(Result result) {
+		return result.items().stream().map(InternshipCatalog.Entry::id).toList();
+	}
+
+	private static CompanyEntity company(long id, String name) {
+		CompanyEntity company = new CompanyEntity();
+		company.setId(id);
+		company.setCompanyName(name);
+		return company;
+	}
+
+	// created in id order, so the newest-first listing is by descending id
+	private static InternshipEntity internship(long id, CompanyEntity company, String location, int seats,
+			int seatsTaken, LocalDate startDate, LocalDate endDate) {
+		InternshipEntity internship = new InternshipEntity(company, "Internship " + id, seats);
+		internship.setId(id);
+		internship.setLocation(location);
+		internship.setStartDate(startDate);
+		internship.setEndDate(endDate);
+		internship.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(id));
+		ReflectionTestUtils.setField(internship, "seatsTaken", seatsTaken);
+		return internship;
+	}
+}
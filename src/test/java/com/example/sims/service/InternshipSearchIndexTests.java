@@ -0,0 +1,118 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.sims.entity.CompanyEntity;
+import com.example.sims.entity.InternshipEntity;
+import com.example.sims.repo.InternshipRepository;
+
+class InternshipSearchIndexTests {
+
+	private final InternshipRepository repository = mock(InternshipRepository.class);
+	private final InternshipSearchIndex index = new InternshipSearchIndex(repository);
+
+	@BeforeEach
+	void setUp() {
+		when(repository.findAllWithCompany()).thenReturn(List.of(
+				internship(1, "Java Backend Developer", "Acme", "Phnom Penh", "Spring services"),
+				internship(2, "Frontend Developer", "Javanese Foods", "Siem Reap", "React and Java tooling"),
+				internship(3, "Data Analyst", "Globex", "Phnom Penh", "SQL reporting"),
+				internship(4, "Dev Tools Intern", "Initech", "Battambang", null)));
+	}
+
+	@AfterEach
+	void tearDown() {
+		index.stop();
+	}
+
+	@Test
+	void tokenizeFoldsCaseAndAccentsAndDropsStopWords() {
+		assertEquals(List.of("cafe", "owner", "union", "2026"),
+				InternshipSearchIndex.tokenize("Café-Owner, the  ÜNÏON of 2026!"));
+		assertEquals(List.of(), InternshipSearchIndex.tokenize("  "));
+		assertEquals(List.of(), InternshipSearchIndex.tokenize(null));
+	}
+
+	@Test
+	void aTitleMatchRanksAboveADescriptionMatch() {
+		// Java is in the title of 1, in the description of 2 and a prefix of 2's company
+		assertEquals(List.of(1L, 2L), ids(index.search("java", 0, 10)));
+	}
+
+	@Test
+	void queryWordsMatchAsPrefixesBelowWholeWords() {
+		List<Long> dev = ids(index.search("dev", 0, 10));
+
+		assertEquals(4L, dev.get(0));
+		assertEquals(Set.of(1L, 2L), Set.copyOf(dev.subList(1, dev.size())));
+		assertEquals(List.of(3L), ids(index.search("analy", 0, 10)));
+	}
+
+	@Test
+	void everyQueryWordMustMatch() {
+		assertEquals(List.of(2L), ids(index.search("frontend react", 0, 10)));
+		assertEquals(List.of(), ids(index.search("java reporting", 0, 10)));
+		assertEquals(0, index.search("the of", 0, 10).total());
+	}
+
+	@Test
+	void pagesCountTheWholeResult() {
+		InternshipSearchIndex.Page second = index.search("developer", 1, 1);
+
+		assertEquals(2, second.total());
+		assertEquals(1, second.hits().size());
+	}
+
+	@Test
+	void anUpdatedAndThenDeletedInternshipLeavesNoTerms() throws InterruptedException {
+		index.search("java", 0, 10);
+		when(repository.findByIdWithCompany(3L))
+				.thenReturn(Optional.of(internship(3, "Java Data Analyst", "Globex", "Phnom Penh", "Kotlin")));
+
+		index.onInternshipChanged(new InternshipChangedEvent(3L));
+		index.awaitUpdates();
+
+		assertTrue(ids(index.search("java", 0, 10)).contains(3L));
+		assertEquals(List.of(3L), ids(index.search("kotlin", 0, 10)));
+		assertEquals(List.of(), ids(index.search("sql", 0, 10)));
+
+		when(repository.findByIdWithCompany(3L)).thenReturn(Optional.empty());
+
+		index.onInternshipChanged(new InternshipChangedEvent(3L));
+		index.awaitUpdates();
+
+		assertEquals(Set.of(1L, 2L), Set.copyOf(ids(index.search("java", 0, 10))));
+		assertEquals(List.of(), ids(index.search("analyst", 0, 10)));
+		assertEquals(List.of(), ids(index.search("kotlin", 0, 10)));
+		assertEquals(3, index.stats().get("documents"));
+	}
+
+	private static List<Long> ids(InternshipSearchIndex.Page page) {
+		return page.hits().stream().map(hit -> hit.internship().id()).toList();
+	}
+
+	private static InternshipEntity internship(long id, String title, String companyName, String location,
+			String description) {
+		CompanyEntity company = new CompanyEntity();
+		company.setId(id + 100);
+		company.setCompanyName(companyName);
+		InternshipEntity internship = new InternshipEntity(company, title, 1);
+		internship.setId(id);
+		internship.setLocation(location);
+		internship.setDescription(description);
+		internship.setCreatedAt(LocalDateTime.of(2026, 1, 1, 0, 0).plusMinutes(id));
+		return internship;
+	}
+}
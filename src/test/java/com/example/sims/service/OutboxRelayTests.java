@@ -0,0 +1,159 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+
+// The outbox against MySQL: events appended in a transaction reach the subscriber only
+// if it commits, in order, and a subscriber that throws sees the event again until it
+// succeeds or the attempts run out.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import({ ApplicationOutbox.class, OutboxRelay.class, OutboxRelayTests.Recorder.class })
+@TestPropertySource(properties = { "outbox.poll-interval-ms=50", "outbox.max-attempts=3" })
+class OutboxRelayTests {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	static class Recorder implements ApplicationLifecycleSubscriber {
+		final Queue<ApplicationLifecycleEvent> received = new ConcurrentLinkedQueue<>();
+		// application id -> deliveries still to fail
+		final Map<Long, Integer> failures = new ConcurrentHashMap<>();
+
+		@Override
+		public void handle(ApplicationLifecycleEvent event) {
+			Integer left = failures.computeIfPresent(event.applicationId(), (id, n) -> n - 1);
+			if (left != null) {
+				if (left == 0) {
+					failures.remove(event.applicationId());
+				}
+				throw new IllegalStateException("failing " + event.applicationId());
+			}
+			received.add(event);
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private ApplicationOutbox outbox;
+	@Autowired
+	private Recorder recorder;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@BeforeEach
+	void reset() {
+		jdbc.update("DELETE FROM application_outbox");
+		recorder.received.clear();
+		recorder.failures.clear();
+	}
+
+	@Test
+	void committedEventsArriveInOrder() {
+		inTransaction(() -> outbox.append(List.of(approved(1), approved(2), approved(3))));
+
+		await(() -> recorder.received.size() == 3);
+		assertEquals(List.of(1L, 2L, 3L), receivedIds());
+		assertEquals(0, pending());
+	}
+
+	@Test
+	void rolledBackEventsAreNeverDelivered() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			outbox.append(approved(1));
+			status.setRollbackOnly();
+		});
+		inTransaction(() -> outbox.append(approved(2)));
+
+		await(() -> pending() == 0 && !recorder.received.isEmpty());
+		assertEquals(List.of(2L), receivedIds());
+	}
+
+	@Test
+	void failedEventsAreRedeliveredBeforeLaterOnes() {
+		recorder.failures.put(1L, 1);
+		inTransaction(() -> outbox.append(List.of(approved(1), approved(2))));
+
+		await(() -> recorder.received.size() == 2);
+		assertEquals(List.of(1L, 2L), receivedIds());
+		assertEquals(1, jdbc.queryForObject("SELECT attempts FROM application_outbox WHERE application_id = 1",
+				Integer.class));
+	}
+
+	@Test
+	void poisonEventsAreGivenUpAfterMaxAttempts() {
+		recorder.failures.put(1L, Integer.MAX_VALUE);
+		inTransaction(() -> outbox.append(List.of(approved(1), approved(2))));
+
+		await(() -> pending() == 0);
+		assertEquals(List.of(2L), receivedIds());
+		Map<String, Object> poison = jdbc.queryForMap(
+				"SELECT attempts, last_error FROM application_outbox WHERE application_id = 1");
+		assertEquals(3, ((Number) poison.get("attempts")).intValue());
+		assertTrue(String.valueOf(poison.get("last_error")).contains("failing 1"));
+	}
+
+	private List<Long> receivedIds() {
+		return recorder.received.stream().map(ApplicationLifecycleEvent::applicationId).toList();
+	}
+
+	private static ApplicationLifecycleEvent approved(long applicationId) {
+		return new ApplicationLifecycleEvent(null, ApplicationLifecycleEvent.Type.STATUS_CHANGED, applicationId,
+				applicationId, 1L, ApplicationStatus.PENDING, ApplicationStatus.APPROVED, LocalDateTime.now());
+	}
+
+	private void inTransaction(Runnable work) {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+	}
+
+	private int pending() {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM application_outbox WHERE published_at IS NULL",
+				Integer.class);
+	}
+
+	private static void await(BooleanSupplier condition) {
+		long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.currentTimeMillis() < deadline, "timed out waiting for the relay");
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new AssertionError(e);
+			}
+		}
+	}
+}
@@ -0,0 +1,290 @@
+package com.example.sims.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.example.sims.dto.ApplicationStatusRow;
+import com.example.sims.entity.ApplicationEntity;
+import com.example.sims.entity.ApplicationEntity.ApplicationStatus;
+import com.example.sims.repo.ApplicationRepository;
+
+// Hundreds of recruiters approving applications to one internship at the same moment,
+// against MySQL. Every approval is its own transaction, the way CompanyService runs it.
+// The seat count must never pass the number of seats, must always equal the number of
+// approved applications, and no transaction may deadlock or sit waiting on a row lock.
+// Resizing the internship must not leave fewer seats than approved applications either.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(SeatAllocator.class)
+class SeatAllocatorStressTests {
+
+	@Container
+	@ServiceConnection
+	static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+	private static final long INTERNSHIP_ID = 1;
+	private static final int SEATS = 25;
+	private static final int APPLICANTS = 400;
+	private static final int THREADS = 64;
+	// the longest any statement may wait for a row lock; holding the internship row from a
+	// read until the commit would queue approvals far beyond this
+	private static final long MAX_ROW_LOCK_WAIT_MILLIS = 1000;
+
+	private enum Outcome {
+		CHANGED, FULL, IN_USE, CONFLICT, ERROR
+	}
+
+	@Autowired
+	private JdbcTemplate jdbc;
+	@Autowired
+	private ApplicationRepository applications;
+	@Autowired
+	private SeatAllocator seatAllocator;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+
+	@BeforeEach
+	void seed() {
+		// companies, profiles, internships and applications go with their users
+		jdbc.update("DELETE FROM users");
+		LocalDateTime now = LocalDateTime.now();
+		List<Object[]> users = new ArrayList<>();
+		for (int i = 1; i <= APPLICANTS + 1; i++) {
+			users.add(new Object[] { i, "user" + i + "@example.com", "user" + i, "x",
+					i <= APPLICANTS ? "STUDENT" : "COMPANY", true, now });
+		}
+		jdbc.batchUpdate("INSERT INTO users (id, email, username, password, role, active, created_at) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?)", users);
+		List<Object[]> students = new ArrayList<>();
+		for (int i = 1; i <= APPLICANTS; i++) {
+			students.add(new Object[] { i, i, String.format("STU-%05d", i), "Student " + i });
+		}
+		jdbc.batchUpdate("INSERT INTO student_profiles (id, user_id, student_code, full_name) VALUES (?, ?, ?, ?)",
+				students);
+		jdbc.update("INSERT INTO companies (id, user_id, company_name) VALUES (1, ?, 'Popular Co')", APPLICANTS + 1);
+		jdbc.update("INSERT INTO internships (id, company_id, title, seats, created_at) VALUES (?, 1, 'Hot seat', ?, ?)",
+				INTERNSHIP_ID, SEATS, now);
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 1; i <= APPLICANTS; i++) {
+			rows.add(new Object[] { i, i, INTERNSHIP_ID, "PENDING", now });
+		}
+		jdbc.batchUpdate("INSERT INTO applications (id, student_id, internship_id, status, applied_at) "
+				+ "VALUES (?, ?, ?, ?, ?)", rows);
+		errors.clear();
+	}
+
+	@Test
+	void parallelApprovalsNeverOversubscribe() throws Exception {
+		List<Callable<Outcome>> approvals = new ArrayList<>();
+		for (long id = 1; id <= APPLICANTS; id++) {
+			long applicationId = id;
+			approvals.add(() -> changeStatus(applicationId, ApplicationStatus.APPROVED));
+		}
+
+		Map<Outcome, Integer> outcomes = runConcurrently(approvals);
+
+		assertNoErrors();
+		assertEquals(SEATS, outcomes.getOrDefault(Outcome.CHANGED, 0), outcomes::toString);
+		assertEquals(APPLICANTS - SEATS, outcomes.getOrDefault(Outcome.FULL, 0), outcomes::toString);
+		assertSeatsMatchApprovals(SEATS);
+		assertNoLongRowLockWaits();
+	}
+
+	@Test
+	void approvingTheSameApplicationTwiceTakesOneSeat() throws Exception {
+		List<Callable<Outcome>> approvals = new ArrayList<>();
+		for (int i = 0; i < APPLICANTS; i++) {
+			approvals.add(() -> changeStatus(1L, ApplicationStatus.APPROVED));
+		}
+
+		runConcurrently(approvals);
+
+		assertNoErrors();
+		assertSeatsMatchApprovals(1);
+		assertNoLongRowLockWaits();
+	}
+
+	@Test
+	void revocationsRacingApprovalsKeepTheCountExact() throws Exception {
+		for (long id = 1; id <= SEATS; id++) {
+			assertEquals(Outcome.CHANGED, changeStatus(id, ApplicationStatus.APPROVED));
+		}
+		List<Callable<Outcome>> changes = new ArrayList<>();
+		for (long id = 1; id <= APPLICANTS; id++) {
+			long applicationId = id;
+			// the holders give their seats up while everyone else grabs for them
+			ApplicationStatus status = id <= SEATS ? ApplicationStatus.REJECTED : ApplicationStatus.APPROVED;
+			changes.add(() -> changeStatus(applicationId, status));
+		}
+
+		runConcurrently(changes);
+
+		assertNoErrors();
+		Integer taken = jdbc.queryForObject("SELECT seats_taken FROM internships WHERE id = ?", Integer.class,
+				INTERNSHIP_ID);
+		assertTrue(taken <= SEATS, "seats taken: " + taken);
+		assertSeatsMatchApprovals(taken);
+		assertEquals(0, approvedAmong(1, SEATS));
+		assertNoLongRowLockWaits();
+	}
+
+	@Test
+	void bulkApprovalsAreAllOrNothing() throws Exception {
+		int chunk = 20;
+		List<Callable<Outcome>> approvals = new ArrayList<>();
+		for (int first = 1; first <= APPLICANTS; first += chunk) {
+			List<ApplicationStatusRow> rows = new ArrayList<>();
+			for (long id = first; id < first + chunk; id++) {
+				rows.add(new ApplicationStatusRow(id, ApplicationStatus.PENDING, id, INTERNSHIP_ID));
+			}
+			approvals.add(() -> changeStatuses(rows, ApplicationStatus.APPROVED));
+		}
+
+		Map<Outcome, Integer> outcomes = runConcurrently(approvals);
+
+		// one chunk fits in the seats, a second one would not
+		assertNoErrors();
+		assertEquals(1, outcomes.getOrDefault(Outcome.CHANGED, 0), outcomes::toString);
+		assertSeatsMatchApprovals(chunk);
+		assertNoLongRowLockWaits();
+	}
+
+	@Test
+	void resizingRacingApprovalsNeverLeavesFewerSeatsThanApprovals() throws Exception {
+		for (long id = 1; id <= 10; id++) {
+			assertEquals(Outcome.CHANGED, changeStatus(id, ApplicationStatus.APPROVED));
+		}
+		assertEquals(Outcome.IN_USE, resize(9));
+		assertEquals(Outcome.CHANGED, resize(10));
+
+		List<Callable<Outcome>> changes = new ArrayList<>();
+		for (long id = 11; id <= APPLICANTS; id++) {
+			long applicationId = id;
+			changes.add(() -> changeStatus(applicationId, ApplicationStatus.APPROVED));
+			if (id % 10 == 0) {
+				// companies trimming and growing the internship while it fills up
+				int seats = (int) (id / 10 % SEATS) + 1;
+				changes.add(() -> resize(seats));
+			}
+		}
+
+		runConcurrently(changes);
+
+		assertNoErrors();
+		Map<String, Object> internship = jdbc.queryForMap("SELECT seats, seats_taken FROM internships WHERE id = ?",
+				INTERNSHIP_ID);
+		int taken = ((Number) internship.get("seats_taken")).intValue();
+		assertTrue(taken <= ((Number) internship.get("seats")).intValue(), internship::toString);
+		assertSeatsMatchApprovals(taken);
+		assertNoLongRowLockWaits();
+	}
+
+	private Outcome resize(int seats) {
+		return inTransaction(() -> seatAllocator.resize(INTERNSHIP_ID, seats));
+	}
+
+	private Outcome changeStatus(Long applicationId, ApplicationStatus status) {
+		return inTransaction(() -> {
+			ApplicationEntity application = applications.findById(applicationId).orElseThrow();
+			seatAllocator.changeStatus(application, status);
+		});
+	}
+
+	private Outcome changeStatuses(List<ApplicationStatusRow> rows, ApplicationStatus status) {
+		return inTransaction(() -> seatAllocator.changeStatuses(rows, status));
+	}
+
+	private Outcome inTransaction(Runnable change) {
+		try {
+			new TransactionTemplate(transactionManager).executeWithoutResult(tx -> change.run());
+			return Outcome.CHANGED;
+		} catch (SeatsUnavailableException e) {
+			return Outcome.FULL;
+		} catch (SeatsInUseException e) {
+			return Outcome.IN_USE;
+		} catch (IllegalStateException e) {
+			return Outcome.CONFLICT;
+		} catch (RuntimeException e) {
+			errors.add(e);
+			return Outcome.ERROR;
+		}
+	}
+
+	// Releases every task at once from a start gate and counts the outcomes
+	private Map<Outcome, Integer> runConcurrently(List<Callable<Outcome>> tasks) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Outcome>> futures = new ArrayList<>(tasks.size());
+			for (Callable<Outcome> task : tasks) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			Map<Outcome, Integer> outcomes = new EnumMap<>(Outcome.class);
+			for (Future<Outcome> future : futures) {
+				outcomes.merge(future.get(2, TimeUnit.MINUTES), 1, Integer::sum);
+			}
+			return outcomes;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void assertNoErrors() {
+		assertTrue(errors.isEmpty(), () -> errors.size() + " failed, first: " + errors.peek());
+	}
+
+	private void assertSeatsMatchApprovals(int expected) {
+		assertEquals(expected, jdbc.queryForObject("SELECT seats_taken FROM internships WHERE id = ?",
+				Integer.class, INTERNSHIP_ID));
+		assertEquals(expected, approvedAmong(1, APPLICANTS));
+	}
+
+	private int approvedAmong(int fromId, int toId) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM applications WHERE status = 'APPROVED' AND id BETWEEN ? AND ?",
+				Integer.class, fromId, toId);
+	}
+
+	private void assertNoLongRowLockWaits() {
+		Map<String, Object> status = jdbc.queryForMap("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_time_max'");
+		long maxWaitMillis = Long.parseLong(String.valueOf(status.get("Value")));
+		assertTrue(maxWaitMillis < MAX_ROW_LOCK_WAIT_MILLIS, "longest row lock wait: " + maxWaitMillis + " ms");
+	}
+}